@@ -0,0 +1,30 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AvailabilityConfig {
+
+    /**
+     * Bounded worker pool that writes live availability updates to the open streams, so a slow client
+     * never holds up the scheduler thread the other background jobs share.
+     * Each stream has at most one task queued, so the queue never needs more room than there are streams.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor availabilityExecutor(@Value("${onvent.availability.send-workers:4}") int workers,
+                                                       @Value("${onvent.availability.max-subscribers:10000}") int maxSubscribers,
+                                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(maxSubscribers);
+        executor.setThreadNamePrefix("availability-");
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("availability-", 1).factory());
+        }
+        return executor;
+    }
+}
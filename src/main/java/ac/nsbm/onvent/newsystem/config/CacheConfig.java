@@ -0,0 +1,67 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // EventDTOs keyed by event id
+    public static final String EVENTS = "events";
+
+    // Pages of the event listing, keyed by page request
+    public static final String EVENT_CATALOG = "eventCatalog";
+
+    // UserPrincipals without the password hash, keyed by the username or email they were looked up with
+    public static final String USERS = "users";
+
+    /**
+     * Bounded Caffeine caches with statistics, so hits, misses and evictions are published as cache.* metrics.
+     * Puts and evictions made inside a transaction are applied only after it commits, so a rolled back
+     * update never reaches the cache.
+     *
+     * Cached reads can be stale, for at most each cache's time to live (onvent.cache.*.ttl: events 10m,
+     * catalog 1m, users 5m by default):
+     * - EVENTS is written on event create and update and evicted on delete; EVENT_CATALOG is cleared on all three.
+     *   Both keep the organizer name they were built with, so renaming a user shows up only when they expire.
+     * - USERS is cleared on every save and delete through UserRepository.
+     * - Writes that bypass these methods (SQL run elsewhere, other application instances, whose caches are
+     *   their own) are not seen here until the entry expires.
+     * - A read that loaded the old row just before a commit can put it back after the eviction.
+     * Seat counts are not cached, and authentication always reads the database.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${onvent.cache.events.max-size:1000}") long eventsMaxSize,
+                                     @Value("${onvent.cache.events.ttl:10m}") Duration eventsTtl,
+                                     @Value("${onvent.cache.event-catalog.max-pages:100}") long catalogMaxPages,
+                                     @Value("${onvent.cache.event-catalog.ttl:1m}") Duration catalogTtl,
+                                     @Value("${onvent.cache.users.max-size:10000}") long usersMaxSize,
+                                     @Value("${onvent.cache.users.ttl:5m}") Duration usersTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(EVENTS, Caffeine.newBuilder()
+                .maximumSize(eventsMaxSize)
+                .expireAfterWrite(eventsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(EVENT_CATALOG, Caffeine.newBuilder()
+                .maximumSize(catalogMaxPages)
+                .expireAfterWrite(catalogTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+                .maximumSize(usersMaxSize)
+                .expireAfterWrite(usersTtl)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
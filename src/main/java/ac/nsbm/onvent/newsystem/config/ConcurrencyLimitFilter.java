@@ -0,0 +1,78 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of requests in progress at once.
+ *
+ * With virtual threads every incoming request gets a thread, so nothing stops ten thousand requests from
+ * queueing on a pool of ten database connections until they time out. Here a request waits at most
+ * {@code acquireTimeout} for one of {@code maxRequests} permits, handed out in arrival order, and is
+ * otherwise answered with 503 and Retry-After. Permits in use are published as request.concurrency.active,
+ * refusals as request.concurrency.rejected. Actuator requests are never limited.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(int maxRequests, Duration acquireTimeout, MeterRegistry meterRegistry) {
+        if (maxRequests < 1) {
+            throw new IllegalStateException("onvent.concurrency-limit.max-requests must be at least 1");
+        }
+        this.permits = new Semaphore(maxRequests, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        Gauge.builder("request.concurrency.active", permits, p -> maxRequests - p.availablePermits())
+                .description("Requests holding a concurrency limit permit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("request.concurrency.rejected")
+                .description("Requests refused with 503 because every permit stayed in use")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"The server is busy, please try again shortly\"}");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
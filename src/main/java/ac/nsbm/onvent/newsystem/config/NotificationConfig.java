@@ -0,0 +1,37 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class NotificationConfig {
+
+    /**
+     * Bounded worker pool that drains the notification outbox.
+     * Extra drain requests are dropped when the queue is full; the scheduled poll picks up anything left behind.
+     * With spring.threads.virtual.enabled the workers are virtual threads, so a worker blocked on SMTP holds no
+     * carrier thread; the pool still bounds how many send at once.
+     * Being an Executor bean, it would stop Boot from creating applicationTaskExecutor, so the profiles set
+     * spring.task.execution.mode=force.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor notificationExecutor(@Value("${onvent.notifications.workers:2}") int workers,
+                                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("notification-");
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("notification-", 1).factory());
+        }
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
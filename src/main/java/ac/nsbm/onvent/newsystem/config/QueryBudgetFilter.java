@@ -0,0 +1,98 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Warns about requests that run more SQL statements than their budget.
+ *
+ * The statements of each request are counted with QueryCounter. A request over the budget of the first
+ * route it matches, or the default budget, is logged with its statements, most repeated first, and counted
+ * in query.budget.exceeded{route}. The request itself is never refused; budgets are enforced in tests.
+ * Only statements run on the request thread are counted, so the part of a streamed response that is
+ * written later on the task executor, such as the ticket export, falls outside every budget.
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final QueryCounter queryCounter;
+    private final List<RouteBudget> routes = new ArrayList<>();
+    private final RouteBudget defaultBudget;
+
+    public QueryBudgetFilter(QueryBudgetProperties properties, QueryCounter queryCounter, MeterRegistry meterRegistry) {
+        this.queryCounter = queryCounter;
+        for (Map.Entry<String, QueryBudgetProperties.Route> route : properties.getRoutes().entrySet()) {
+            QueryBudgetProperties.Route budget = route.getValue();
+            if (budget.getPattern() == null || budget.getMaxStatements() < 0) {
+                throw new IllegalStateException("onvent.query-budget.routes." + route.getKey() + " needs a pattern and a budget of at least 0");
+            }
+            routes.add(new RouteBudget(route.getKey(), budget.getMethod(),
+                    PathPatternParser.defaultInstance.parse(budget.getPattern()), budget.getMaxStatements(), meterRegistry));
+        }
+        this.defaultBudget = new RouteBudget(DEFAULT_ROUTE, null, null, properties.getMaxStatements(), meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (QueryCounter.Recording recording = queryCounter.start()) {
+            filterChain.doFilter(request, response);
+            RouteBudget budget = budgetFor(request);
+            if (recording.count() > budget.maxStatements) {
+                budget.exceeded.increment();
+                logger.warn("{} {} went over its query budget of {} ({} route): {}", request.getMethod(),
+                        request.getRequestURI(), budget.maxStatements, budget.name, recording.describe());
+            }
+        }
+    }
+
+    private RouteBudget budgetFor(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (RouteBudget route : routes) {
+            if (route.matches(request.getMethod(), path)) {
+                return route;
+            }
+        }
+        return defaultBudget;
+    }
+
+    private static final class RouteBudget {
+        private final String name;
+        private final String method;
+        private final PathPattern pattern;
+        private final int maxStatements;
+        private final Counter exceeded;
+
+        private RouteBudget(String name, String method, PathPattern pattern, int maxStatements, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.method = method == null || method.isEmpty() ? null : method;
+            this.pattern = pattern;
+            this.maxStatements = maxStatements;
+            this.exceeded = Counter.builder("query.budget.exceeded")
+                    .description("Requests that ran more SQL statements than their budget")
+                    .tag("route", name)
+                    .register(meterRegistry);
+        }
+
+        private boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && pattern.matches(path);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statement budgets per request, e.g.
+ *   onvent.query-budget.max-statements=20
+ *   onvent.query-budget.routes.event-page.method=GET
+ *   onvent.query-budget.routes.event-page.pattern=/api/v1/events
+ *   onvent.query-budget.routes.event-page.max-statements=3
+ */
+@Data
+@ConfigurationProperties(prefix = "onvent.query-budget")
+public class QueryBudgetProperties {
+
+    private boolean enabled = false;
+
+    // Budget of requests that match no route
+    private int maxStatements = 20;
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        // HTTP method, or any method when empty
+        private String method;
+        // Path pattern, e.g. /api/v1/tickets/**
+        private String pattern;
+        private int maxStatements;
+    }
+}
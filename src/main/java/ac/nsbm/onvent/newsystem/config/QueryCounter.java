@@ -0,0 +1,124 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ *
+ * Installed as Hibernate's statement inspector, it records every statement into the recordings open on
+ * the calling thread, so a test or a request sees only its own statements, unlike the global Hibernate
+ * statistics. A batch of inserts counts once, as it is one prepared statement. Recordings nest, and a
+ * thread without an open recording pays one thread-local lookup per statement. An inspector configured with
+ * hibernate.session_factory.statement_inspector keeps working and runs first.
+ *   try (QueryCounter.Recording recording = queryCounter.start()) { ... recording.count() ... }
+ */
+@Component
+public class QueryCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final int DESCRIBED_STATEMENTS = 10;
+
+    private final transient ThreadLocal<Deque<Recording>> recordings = ThreadLocal.withInitial(ArrayDeque::new);
+    private transient StatementInspector delegate;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        Object configured = hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        if (configured != null && configured != this) {
+            delegate = instantiate(configured);
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (delegate != null) {
+            sql = delegate.inspect(sql);
+        }
+        Deque<Recording> open = recordings.get();
+        if (!open.isEmpty()) {
+            for (Recording recording : open) {
+                recording.statements.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Start recording the statements of the current thread until the recording is closed
+     */
+    public Recording start() {
+        Recording recording = new Recording(this);
+        recordings.get().push(recording);
+        return recording;
+    }
+
+    private static StatementInspector instantiate(Object configured) {
+        if (configured instanceof StatementInspector inspector) {
+            return inspector;
+        }
+        try {
+            Class<?> type = configured instanceof Class<?> c ? c : Class.forName(configured.toString().trim());
+            return (StatementInspector) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Cannot create the statement inspector " + configured, e);
+        }
+    }
+
+    private void stop(Recording recording) {
+        Deque<Recording> open = recordings.get();
+        open.remove(recording);
+        if (open.isEmpty()) {
+            recordings.remove();
+        }
+    }
+
+    public static final class Recording implements AutoCloseable {
+        private final QueryCounter counter;
+        private final List<String> statements = new ArrayList<>();
+
+        private Recording(QueryCounter counter) {
+            this.counter = counter;
+        }
+
+        public int count() {
+            return statements.size();
+        }
+
+        public List<String> statements() {
+            return Collections.unmodifiableList(statements);
+        }
+
+        /**
+         * The statements run, most repeated first, for logs and failed budget assertions;
+         * the same statement run many times is the sign of an N+1
+         */
+        public String describe() {
+            Map<String, Long> counts = statements.stream()
+                    .collect(Collectors.groupingBy(sql -> sql, LinkedHashMap::new, Collectors.counting()));
+            String described = counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(DESCRIBED_STATEMENTS)
+                    .map(entry -> entry.getValue() + "x " + entry.getKey())
+                    .collect(Collectors.joining("\n  ", "\n  ", ""));
+            String more = counts.size() > DESCRIBED_STATEMENTS
+                    ? "\n  ... and " + (counts.size() - DESCRIBED_STATEMENTS) + " more distinct statements" : "";
+            return statements.size() + " SQL statements:" + described + more;
+        }
+
+        @Override
+        public void close() {
+            counter.stop(this);
+        }
+    }
+}
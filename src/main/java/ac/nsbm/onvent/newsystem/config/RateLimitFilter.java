@@ -0,0 +1,119 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket rate limiting of the routes configured under onvent.rate-limit.routes.
+ *
+ * Every route has its own buckets, keyed by user id or client IP. Buckets live in a bounded Caffeine map,
+ * so the number of clients tracked cannot grow without limit, and idle buckets, which are full anyway,
+ * are dropped. A request without a token gets 429 with Retry-After and is counted in
+ * rate.limit.rejected{route}. The filter runs after authentication, so the user is known.
+ * The client IP is the remote address; behind a proxy, set server.forward-headers-strategy.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<RouteLimit> routes = new ArrayList<>();
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        for (Map.Entry<String, RateLimitProperties.Route> route : properties.getRoutes().entrySet()) {
+            routes.add(new RouteLimit(route.getKey(), route.getValue(), properties.getMaxKeys(), meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (RouteLimit route : routes) {
+            if (!route.matches(request.getMethod(), path)) {
+                continue;
+            }
+            long waitNanos = route.tryConsume(route.key(request), System.nanoTime());
+            if (waitNanos > 0) {
+                route.rejected.increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"Too many requests, please try again in " + retryAfterSeconds + " seconds\"}");
+    }
+
+    private static final class RouteLimit {
+        private final String method;
+        private final PathPattern pattern;
+        private final RateLimitProperties.Route limit;
+        private final Cache<String, TokenBucket> buckets;
+        private final Counter rejected;
+
+        private RouteLimit(String name, RateLimitProperties.Route limit, long maxKeys, MeterRegistry meterRegistry) {
+            if (limit.getPattern() == null || limit.getLimit() < 1) {
+                throw new IllegalStateException("onvent.rate-limit.routes." + name + " needs a pattern and a limit of at least 1");
+            }
+            this.method = limit.getMethod() == null || limit.getMethod().isEmpty() ? null : limit.getMethod();
+            this.pattern = PathPatternParser.defaultInstance.parse(limit.getPattern());
+            this.limit = limit;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(limit.getPeriod())
+                    .build();
+            this.rejected = Counter.builder("rate.limit.rejected")
+                    .description("Requests refused with 429 by the rate limiter")
+                    .tag("route", name)
+                    .register(meterRegistry);
+        }
+
+        private boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && pattern.matches(path);
+        }
+
+        private String key(HttpServletRequest request) {
+            if (limit.getKey() == RateLimitProperties.KeyType.USER) {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+                    return "user:" + principal.getId();
+                }
+            }
+            return "ip:" + request.getRemoteAddr();
+        }
+
+        private long tryConsume(String key, long nowNanos) {
+            return buckets.get(key, k -> new TokenBucket(limit.getLimit(), limit.getPeriod(), nowNanos)).tryConsume(nowNanos);
+        }
+    }
+}
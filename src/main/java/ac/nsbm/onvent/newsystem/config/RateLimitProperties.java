@@ -0,0 +1,47 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-route request limits, e.g.
+ *   onvent.rate-limit.routes.booking.method=POST
+ *   onvent.rate-limit.routes.booking.pattern=/api/v1/tickets/book
+ *   onvent.rate-limit.routes.booking.limit=20
+ *   onvent.rate-limit.routes.booking.period=1m
+ *   onvent.rate-limit.routes.booking.key=user
+ */
+@Data
+@ConfigurationProperties(prefix = "onvent.rate-limit")
+public class RateLimitProperties {
+
+    public enum KeyType {
+        // The signed-in user, or the client IP for anonymous requests
+        USER,
+        // The client IP
+        IP
+    }
+
+    private boolean enabled = true;
+
+    // Buckets kept per route; the least recently used are dropped beyond this
+    private long maxKeys = 100_000;
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        // HTTP method to limit, or any method when empty
+        private String method;
+        // Path pattern, e.g. /api/v1/tickets/**
+        private String pattern;
+        // Requests allowed per period, which is also the largest burst
+        private int limit;
+        private Duration period = Duration.ofMinutes(1);
+        private KeyType key = KeyType.USER;
+    }
+}
@@ -0,0 +1,11 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    // Enables @Scheduled background jobs such as the seat inventory reconciliation
+}
@@ -1,5 +1,11 @@
 package ac.nsbm.onvent.newsystem.config;
 
+import ac.nsbm.onvent.newsystem.service.TokenService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -10,35 +16,78 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
+@EnableConfigurationProperties({RateLimitProperties.class, QueryBudgetProperties.class})
 public class SecurityConfig {
 
+    /**
+     * Password hashes are stored as {id}hash, so the algorithm or its cost can change without breaking
+     * existing hashes. New hashes use onvent.security.password-encoder; hashes stored before the {id}
+     * prefix existed are plain bcrypt. The bcrypt cost comes from PasswordEncoderBenchmark on the target
+     * hardware. Hashing runs on a bounded pool, see BoundedPasswordEncoder.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${onvent.security.password-encoder:bcrypt}") String encoderId,
+                                           @Value("${onvent.security.bcrypt.strength:10}") int bcryptStrength,
+                                           @Value("${onvent.security.password-hashing.threads:0}") int hashingThreads,
+                                           @Value("${onvent.security.password-hashing.queue-capacity:64}") int hashingQueueCapacity,
+                                           MeterRegistry meterRegistry) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalStateException("Unknown onvent.security.password-encoder: " + encoderId + ", expected one of " + encoders.keySet());
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encoderId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        
+        // Half the cores by default, so bookings always keep the other half during a login storm
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(delegating, threads, hashingQueueCapacity, meterRegistry);
     }
 
+    /**
+     * A successful login whose stored hash uses an older algorithm or cost is rehashed with the
+     * current encoder and saved, so stored hashes follow the configuration without a reset.
+     */
     @Bean
-    public DaoAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService) {
+    public DaoAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                           UserDetailsPasswordService userDetailsPasswordService,
+                                                           PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -47,13 +96,29 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * Where the authentication is kept between requests.
+     * Session mode keeps it in the HTTP session; token mode keeps it for the current request only,
+     * since every request brings its own access token.
+     */
     @Bean
-    public SecurityContextRepository securityContextRepository() {
-        return new HttpSessionSecurityContextRepository();
+    public SecurityContextRepository securityContextRepository(ObjectProvider<TokenService> tokenServiceProvider) {
+        return tokenServiceProvider.getIfAvailable() != null
+                ? new RequestAttributeSecurityContextRepository()
+                : new HttpSessionSecurityContextRepository();
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, SecurityContextRepository securityContextRepository) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, SecurityContextRepository securityContextRepository,
+                                           ObjectProvider<TokenService> tokenServiceProvider,
+                                           RateLimitProperties rateLimitProperties,
+                                           QueryBudgetProperties queryBudgetProperties,
+                                           QueryCounter queryCounter,
+                                           MeterRegistry meterRegistry,
+                                           DataSource dataSource,
+                                           @Value("${onvent.concurrency-limit.enabled:false}") boolean concurrencyLimitEnabled,
+                                           @Value("${onvent.concurrency-limit.max-requests:0}") int maxConcurrentRequests,
+                                           @Value("${onvent.concurrency-limit.acquire-timeout:2s}") Duration concurrencyAcquireTimeout) throws Exception {
         // CSRF token handler for SPA applications
         CsrfTokenRequestAttributeHandler requestHandler = new CsrfTokenRequestAttributeHandler();
         requestHandler.setCsrfRequestAttributeName("_csrf");
@@ -85,13 +150,18 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PUT, "/api/v1/events/**").hasAnyRole("USER", "ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/v1/events/**").hasAnyRole("USER", "ADMIN")
                 
-                // Ticket endpoints - Users can book, ADMIN can view all
+                // Ticket endpoints - Users can book, ADMIN can view all and run admission queues
+                .requestMatchers("/api/v1/tickets/admin/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/v1/tickets/**").hasAnyRole("USER", "ADMIN")
                 .requestMatchers(HttpMethod.GET, "/api/v1/tickets/user/**").hasAnyRole("USER", "ADMIN")
                 .requestMatchers(HttpMethod.GET, "/api/v1/tickets/event/**").hasAnyRole("USER", "ADMIN")
-                .requestMatchers(HttpMethod.GET, "/api/v1/tickets/admin/**").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.GET, "/api/v1/tickets/queue/**").hasAnyRole("USER", "ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/v1/tickets/**").hasAnyRole("USER", "ADMIN")
                 
+                // Actuator - health is public, metrics are for admins
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                
                 // All other requests require authentication
                 .anyRequest().authenticated()
             )
@@ -99,10 +169,44 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
             )
             .httpBasic(httpBasic -> httpBasic.disable());
+        
+        TokenService tokenService = tokenServiceProvider.getIfAvailable();
+        if (tokenService != null) {
+            // Stateless mode: no session is created and there is no session cookie for CSRF to protect
+            http
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session
+                    .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class);
+        }
+        
+        if (rateLimitProperties.isEnabled()) {
+            // After authentication so limits can be per user, before authorization so refused requests cost nothing
+            http.addFilterBefore(new RateLimitFilter(rateLimitProperties, meterRegistry), AuthorizationFilter.class);
+        }
+        
+        if (concurrencyLimitEnabled) {
+            // After the rate limiter, so requests it refuses never take a permit
+            int maxRequests = maxConcurrentRequests > 0 ? maxConcurrentRequests : 2 * connectionPoolSize(dataSource);
+            http.addFilterBefore(new ConcurrencyLimitFilter(maxRequests, concurrencyAcquireTimeout, meterRegistry), AuthorizationFilter.class);
+        }
+        
+        if (queryBudgetProperties.isEnabled()) {
+            // Ahead of the security filters, so statements run while authenticating count too
+            http.addFilterBefore(new QueryBudgetFilter(queryBudgetProperties, queryCounter, meterRegistry), SecurityContextHolderFilter.class);
+        }
             
         return http.build();
     }
 
+    private static int connectionPoolSize(DataSource dataSource) throws SQLException {
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            throw new IllegalStateException("onvent.concurrency-limit.max-requests must be set when the DataSource is not HikariCP");
+        }
+        return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,46 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import ac.nsbm.onvent.newsystem.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates a request from the bearer access token in its Authorization header.
+ * The token is verified with the shared secret only; no session is read and the database is not queried.
+ * Requests without a valid token continue unauthenticated and are refused by the authorization rules.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            tokenService.verifyToken(header.substring(BEARER_PREFIX.length()), TokenService.TokenType.ACCESS)
+                    .ifPresent(principal -> {
+                        SecurityContext context = SecurityContextHolder.createEmptyContext();
+                        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                                principal, null, principal.getAuthorities()));
+                        SecurityContextHolder.setContext(context);
+                    });
+        }
+        filterChain.doFilter(request, response);
+    }
+}
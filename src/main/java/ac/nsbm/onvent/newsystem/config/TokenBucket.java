@@ -0,0 +1,43 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code capacity} tokens, refilled at {@code capacity} per {@code period}.
+ *
+ * The bucket is kept as a single timestamp, the time at which it would be full again (the generic cell rate
+ * algorithm), so taking a token is one compare-and-set and no refill thread or lock is needed.
+ */
+final class TokenBucket {
+
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int capacity, Duration period, long nowNanos) {
+        this.refillIntervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstNanos = refillIntervalNanos * (capacity - 1);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Take one token
+     * @param nowNanos Current System.nanoTime()
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            // An idle bucket is full: it cannot save up more than its capacity
+            long start = current - nowNanos > 0 ? current : nowNanos;
+            long waitNanos = start - nowNanos - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (fullAt.compareAndSet(current, start + refillIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Authenticated user kept in the SecurityContext (and so in the HTTP session, or in the access token in token mode).
+ * Carries what request handlers need about the current user, so they never look the user up again.
+ * The password hash is only held until authentication completes.
+ */
+public class UserPrincipal implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String username;
+    private final String name;
+    private final String email;
+    private final Role role;
+    private String password;
+
+    private UserPrincipal(Long id, String username, String name, String email, Role role, String password) {
+        this.id = id;
+        this.username = username;
+        this.name = name;
+        this.email = email;
+        this.role = role;
+        this.password = password;
+    }
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getName(), user.getEmail(), user.getRole(), user.getPassword());
+    }
+
+    /**
+     * Principal rebuilt from a verified access token; it never holds a password
+     */
+    public static UserPrincipal of(Long id, String username, String name, String email, Role role) {
+        return new UserPrincipal(id, username, name, email, role, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
@@ -1,14 +1,20 @@
 package ac.nsbm.onvent.newsystem.controller;
 
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
 import ac.nsbm.onvent.newsystem.dto.AuthResponse;
 import ac.nsbm.onvent.newsystem.dto.LoginRequest;
+import ac.nsbm.onvent.newsystem.dto.RefreshTokenRequest;
 import ac.nsbm.onvent.newsystem.dto.SignupRequest;
 import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.exception.ServiceBusyException;
+import ac.nsbm.onvent.newsystem.service.TokenService;
 import ac.nsbm.onvent.newsystem.service.UserService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -34,11 +40,15 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final SecurityContextRepository securityContextRepository;
+    // Only present in token authentication mode
+    private final TokenService tokenService;
     
-    public AuthController(AuthenticationManager authenticationManager, UserService userService, SecurityContextRepository securityContextRepository) {
+    public AuthController(AuthenticationManager authenticationManager, UserService userService, SecurityContextRepository securityContextRepository,
+                          ObjectProvider<TokenService> tokenServiceProvider) {
         this.authenticationManager = authenticationManager;
         this.userService = userService;
         this.securityContextRepository = securityContextRepository;
+        this.tokenService = tokenServiceProvider.getIfAvailable();
     }
     
     // Endpoint to get CSRF token
@@ -53,6 +63,8 @@ public class AuthController {
             User user = userService.registerUser(signupRequest);
             AuthResponse response = userService.convertToAuthResponse(user, "User registered successfully");
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (ServiceBusyException e) {
+            return serviceBusy(e);
         } catch (RuntimeException e) {
             System.err.println("Registration error: " + e.getMessage());
             e.printStackTrace();
@@ -85,21 +97,57 @@ public class AuthController {
             // Save the security context to the repository
             securityContextRepository.saveContext(securityContext, request, response);
             
-            // Get user details
-            User user = userService.findByUsernameOrEmail(loginRequest.getUsernameOrEmail())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            // User details come with the authenticated principal
+            UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
             
             AuthResponse resp = userService.convertToAuthResponse(user, "Login successful");
+            if (tokenService != null) {
+                tokenService.addTokens(resp, user);
+            }
             return ResponseEntity.ok(resp);
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("Invalid username/email or password"));
+        } catch (ServiceBusyException e) {
+            return serviceBusy(e);
         } catch (Exception e) {
+            // Unknown users are still hashed against (timing protection); that failure arrives wrapped
+            if (e.getCause() instanceof ServiceBusyException busy) {
+                return serviceBusy(busy);
+            }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(createErrorResponse("An error occurred during login"));
         }
     }
     
+    /**
+     * Exchange a refresh token for a new access and refresh token (token authentication mode only).
+     * The user is looked up again so role changes and deleted users take effect at the next refresh.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        if (tokenService == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Token authentication is not enabled"));
+        }
+        try {
+            UserPrincipal user = tokenService.verifyToken(refreshRequest.getRefreshToken(), TokenService.TokenType.REFRESH)
+                    .flatMap(principal -> userService.findByUsernameOrEmail(principal.getUsername()))
+                    .map(UserPrincipal::from)
+                    .orElse(null);
+            if (user == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(createErrorResponse("Invalid or expired refresh token"));
+            }
+            
+            AuthResponse resp = userService.convertToAuthResponse(user, "Token refreshed");
+            return ResponseEntity.ok(tokenService.addTokens(resp, user));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("An error occurred while refreshing the token"));
+        }
+    }
+    
     @PostMapping("/logout")
     public ResponseEntity<?> logout(HttpServletRequest request, HttpServletResponse response) {
         try {
@@ -119,18 +167,13 @@ public class AuthController {
     @GetMapping("/me")
     public ResponseEntity<?> getCurrentUser() {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            UserPrincipal user = userService.getCurrentUser().orElse(null);
             
-            if (authentication == null || !authentication.isAuthenticated() || 
-                authentication.getPrincipal().equals("anonymousUser")) {
+            if (user == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(createErrorResponse("Not authenticated"));
             }
             
-            String username = authentication.getName();
-            User user = userService.findByUsernameOrEmail(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             AuthResponse resp = userService.convertToAuthResponse(user, null);
             return ResponseEntity.ok(resp);
         } catch (Exception e) {
@@ -153,6 +196,13 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
     
+    // Password hashing is saturated; the client should retry shortly
+    private ResponseEntity<?> serviceBusy(ServiceBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(createErrorResponse(e.getMessage()));
+    }
+    
     private Map<String, String> createErrorResponse(String message) {
         Map<String, String> error = new HashMap<>();
         error.put("error", message);
@@ -1,48 +1,64 @@
 package ac.nsbm.onvent.newsystem.controller;
 
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
+import ac.nsbm.onvent.newsystem.dto.EventCursorPage;
 import ac.nsbm.onvent.newsystem.dto.EventDTO;
 import ac.nsbm.onvent.newsystem.service.EventService;
+import ac.nsbm.onvent.newsystem.service.SeatAvailabilityPublisher;
 import ac.nsbm.onvent.newsystem.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/events")
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174", "http://localhost:5175", "https://onvent.netlify.app"}, allowCredentials = "true")
 public class EventController {
     
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("date", "title", "price", "category", "id");
+    private static final String NDJSON = "application/x-ndjson";
+    
     private final EventService eventService;
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final SeatAvailabilityPublisher seatAvailabilityPublisher;
     
-    public EventController(EventService eventService, UserService userService) {
+    public EventController(EventService eventService, UserService userService, ObjectMapper objectMapper,
+                           SeatAvailabilityPublisher seatAvailabilityPublisher) {
         this.eventService = eventService;
         this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.seatAvailabilityPublisher = seatAvailabilityPublisher;
     }
     
     // Create a new event
     @PostMapping
     public ResponseEntity<?> createEvent(@RequestBody EventDTO eventDTO) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated() || 
-                authentication.getPrincipal().equals("anonymousUser")) {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(createErrorResponse("You must be logged in to create an event"));
             }
             
-            String username = authentication.getName();
+            String username = currentUser.getUsername();
             EventDTO createdEvent = eventService.createEvent(eventDTO, username);
             return new ResponseEntity<>(createdEvent, HttpStatus.CREATED);
         } catch (Exception e) {
@@ -51,11 +67,19 @@ public class EventController {
         }
     }
     
-    // Get all events
+    // Get events a page at a time
     @GetMapping
-    public ResponseEntity<List<EventDTO>> getAllEvents() {
+    public ResponseEntity<Page<EventDTO>> getAllEvents(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "date") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir) {
         try {
-            List<EventDTO> events = eventService.getAllEvents();
+            String sortProperty = SORTABLE_PROPERTIES.contains(sortBy) ? sortBy : "date";
+            Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortProperty).descending() : Sort.by(sortProperty).ascending();
+            Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), sort.and(Sort.by("id")));
+            
+            Page<EventDTO> events = eventService.getEvents(pageable);
             return new ResponseEntity<>(events, HttpStatus.OK);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -63,28 +87,57 @@ public class EventController {
         }
     }
     
+    // Stream every event as newline-delimited JSON, for clients that need the whole catalog
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllEvents() {
+        StreamingResponseBody body = out -> eventService.streamEvents(event -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
     // Search events
+    // Offset paging by default; pass paging=cursor (or a cursor from a previous page) to page on (date, id)
     @GetMapping("/search")
-    public ResponseEntity<Page<EventDTO>> searchEvents(
+    public ResponseEntity<?> searchEvents(
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String date,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "date") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "offset") String paging,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
         
         try {
-            Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-            Pageable pageable = PageRequest.of(page, size, sort);
-            
             LocalDateTime dateTime = null;
             if (date != null && !date.isEmpty()) {
                 dateTime = LocalDateTime.parse(date);
             }
             
+            if (cursor != null || paging.equalsIgnoreCase("cursor")) {
+                int pageSize = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+                EventCursorPage events = eventService.searchEventsAfter(title, category, dateTime, cursor, pageSize, includeTotal);
+                return new ResponseEntity<>(events, HttpStatus.OK);
+            }
+            
+            Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+            Pageable pageable = PageRequest.of(page, size, sort);
+            
             Page<EventDTO> events = eventService.searchEvents(title, category, dateTime, pageable);
             return new ResponseEntity<>(events, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(null);
@@ -103,18 +156,23 @@ public class EventController {
         }
     }
     
+    // Live seat availability as Server-Sent Events, instead of polling the availability endpoint
+    @GetMapping(value = "/{id}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@PathVariable Long id) {
+        return seatAvailabilityPublisher.subscribe(id);
+    }
+    
     // Update event
     @PutMapping("/{id}")
     public ResponseEntity<?> updateEvent(@PathVariable Long id, @RequestBody EventDTO eventDTO) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated() || 
-                authentication.getPrincipal().equals("anonymousUser")) {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(createErrorResponse("You must be logged in to update an event"));
             }
             
-            String username = authentication.getName();
+            String username = currentUser.getUsername();
             EventDTO updatedEvent = eventService.updateEvent(id, eventDTO, username);
             return new ResponseEntity<>(updatedEvent, HttpStatus.OK);
         } catch (RuntimeException e) {
@@ -130,14 +188,13 @@ public class EventController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteEvent(@PathVariable Long id) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated() || 
-                authentication.getPrincipal().equals("anonymousUser")) {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(createErrorResponse("You must be logged in to delete an event"));
             }
             
-            String username = authentication.getName();
+            String username = currentUser.getUsername();
             eventService.deleteEvent(id, username);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } catch (RuntimeException e) {
@@ -1,19 +1,30 @@
 package ac.nsbm.onvent.newsystem.controller;
 
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
 import ac.nsbm.onvent.newsystem.dto.BookingRequest;
 import ac.nsbm.onvent.newsystem.dto.BookingResponse;
 import ac.nsbm.onvent.newsystem.dto.DashboardStatsDTO;
-import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.dto.QueueStatusResponse;
+import ac.nsbm.onvent.newsystem.dto.SeatHoldResponse;
+import ac.nsbm.onvent.newsystem.exception.AdmissionRequiredException;
+import ac.nsbm.onvent.newsystem.exception.ResourceNotFoundException;
+import ac.nsbm.onvent.newsystem.repository.AdmissionQueueStore;
+import ac.nsbm.onvent.newsystem.service.AdmissionQueueService;
+import ac.nsbm.onvent.newsystem.service.SeatHoldService;
 import ac.nsbm.onvent.newsystem.service.TicketService;
 import ac.nsbm.onvent.newsystem.service.UserService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
@@ -26,32 +37,45 @@ public class TicketController {
     
     private final TicketService ticketService;
     private final UserService userService;
+    private final AdmissionQueueService admissionQueueService;
+    private final SeatHoldService seatHoldService;
     
-    public TicketController(TicketService ticketService, UserService userService) {
+    public TicketController(TicketService ticketService, UserService userService,
+                            AdmissionQueueService admissionQueueService, SeatHoldService seatHoldService) {
         this.ticketService = ticketService;
         this.userService = userService;
+        this.admissionQueueService = admissionQueueService;
+        this.seatHoldService = seatHoldService;
     }
     
     @PostMapping("/book")
     public ResponseEntity<?> bookTicket(@RequestBody BookingRequest bookingRequest) {
         try {
             // Get current authenticated user
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated() || 
-                authentication.getPrincipal().equals("anonymousUser")) {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(createErrorResponse("You must be logged in to book tickets"));
             }
             
-            String username = authentication.getName();
-            User currentUser = userService.findByUsernameOrEmail(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             // Set the user ID in the booking request
             bookingRequest.setUserId(currentUser.getId());
             
-            BookingResponse response = ticketService.bookTicket(bookingRequest);
+            // During a queued on-sale only admitted users get through to the database, one booking per admission
+            AdmissionQueueStore.Entry admission = admissionQueueService.consumeAdmission(
+                    bookingRequest.getEventId(), currentUser.getId(), bookingRequest.getQueueToken());
+            
+            BookingResponse response;
+            try {
+                response = ticketService.bookTicket(bookingRequest);
+            } catch (RuntimeException e) {
+                admissionQueueService.restoreAdmission(admission);
+                throw e;
+            }
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (AdmissionRequiredException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(createErrorResponse(e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(createErrorResponse(e.getMessage()));
@@ -61,22 +85,95 @@ public class TicketController {
         }
     }
     
+    /**
+     * Hold seats while the user confirms. The seats count as taken until the hold is confirmed,
+     * released or expires. During a queued on-sale the hold needs an admitted queue token.
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<?> holdSeats(@RequestBody BookingRequest bookingRequest) {
+        try {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(createErrorResponse("You must be logged in to hold seats"));
+            }
+            
+            AdmissionQueueStore.Entry admission = admissionQueueService.consumeAdmission(
+                    bookingRequest.getEventId(), currentUser.getId(), bookingRequest.getQueueToken());
+            
+            SeatHoldResponse hold;
+            try {
+                hold = seatHoldService.createHold(currentUser.getId(), bookingRequest);
+            } catch (RuntimeException e) {
+                admissionQueueService.restoreAdmission(admission);
+                throw e;
+            }
+            return new ResponseEntity<>(hold, HttpStatus.CREATED);
+        } catch (AdmissionRequiredException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Turn a hold into tickets
+     */
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<?> confirmHold(@PathVariable String holdId) {
+        try {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(createErrorResponse("You must be logged in to book tickets"));
+            }
+            
+            BookingResponse response = seatHoldService.confirmHold(holdId, currentUser.getId());
+            return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Give held seats back before the hold expires
+     */
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<?> releaseHold(@PathVariable String holdId) {
+        try {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(createErrorResponse("You must be logged in to release seats"));
+            }
+            
+            seatHoldService.releaseHold(holdId, currentUser.getId());
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Seats released");
+            return ResponseEntity.ok(response);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/user")
     public ResponseEntity<?> getUserTickets(@RequestParam(defaultValue = "0") int page, 
                                           @RequestParam(defaultValue = "10") int size) {
         try {
             // Get current authenticated user
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated() || 
-                authentication.getPrincipal().equals("anonymousUser")) {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(createErrorResponse("You must be logged in to view your tickets"));
             }
             
-            String username = authentication.getName();
-            User currentUser = userService.findByUsernameOrEmail(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             Pageable pageable = PageRequest.of(page, size);
             Page<BookingResponse> tickets = ticketService.getUserBookings(currentUser.getId(), pageable);
             return ResponseEntity.ok(tickets);
@@ -90,17 +187,12 @@ public class TicketController {
     public ResponseEntity<?> getUserTicketsList() {
         try {
             // Get current authenticated user
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication == null || !authentication.isAuthenticated() || 
-                authentication.getPrincipal().equals("anonymousUser")) {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(createErrorResponse("You must be logged in to view your tickets"));
             }
             
-            String username = authentication.getName();
-            User currentUser = userService.findByUsernameOrEmail(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
             List<BookingResponse> tickets = ticketService.getUserBookingsList(currentUser.getId());
             return ResponseEntity.ok(tickets);
         } catch (Exception e) {
@@ -186,6 +278,123 @@ public class TicketController {
         }
     }
     
+    /**
+     * Export every active ticket of an event for admin, as one multi-page PDF or a ZIP of PDFs.
+     * The file is streamed to the client while the tickets are read.
+     */
+    @GetMapping("/admin/event/{eventId}/tickets/export")
+    public ResponseEntity<?> exportEventTickets(@PathVariable Long eventId,
+                                                @RequestParam(defaultValue = "pdf") String format) {
+        try {
+            // Check if user is admin
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !authentication.isAuthenticated() || 
+                authentication.getPrincipal().equals("anonymousUser")) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(createErrorResponse("You must be logged in to export tickets"));
+            }
+            
+            TicketService.ExportFormat exportFormat;
+            try {
+                exportFormat = TicketService.ExportFormat.valueOf(format.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(createErrorResponse("Unsupported export format: " + format));
+            }
+            
+            // Resolve the file name first so a missing event is reported before the download starts
+            String fileName = ticketService.getTicketExportFileName(eventId, exportFormat);
+            StreamingResponseBody body = out -> ticketService.exportEventTickets(eventId, exportFormat, out);
+            
+            return ResponseEntity.ok()
+                    .contentType(exportFormat == TicketService.ExportFormat.ZIP
+                            ? MediaType.parseMediaType("application/zip")
+                            : MediaType.APPLICATION_PDF)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                    .body(body);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to export tickets: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Join the admission queue of an event. The response says whether to wait (with the position and when to
+     * poll again), to book with the returned token, or that the event is not queued and can be booked directly.
+     */
+    @PostMapping("/queue/{eventId}")
+    public ResponseEntity<?> joinQueue(@PathVariable Long eventId) {
+        try {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(createErrorResponse("You must be logged in to join the queue"));
+            }
+            
+            QueueStatusResponse status = admissionQueueService.join(eventId, currentUser.getId());
+            return ResponseEntity.ok(status);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Poll the place of a queue token
+     */
+    @GetMapping("/queue/{eventId}")
+    public ResponseEntity<?> getQueueStatus(@PathVariable Long eventId, @RequestParam String token) {
+        try {
+            UserPrincipal currentUser = userService.getCurrentUser().orElse(null);
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(createErrorResponse("You must be logged in to check the queue"));
+            }
+            
+            QueueStatusResponse status = admissionQueueService.getStatus(eventId, token, currentUser.getId());
+            return ResponseEntity.ok(status);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Open the admission queue of an event for admin, or change its rate
+     */
+    @PutMapping("/admin/queue/{eventId}")
+    public ResponseEntity<?> openQueue(@PathVariable Long eventId, @RequestParam int admitPerSecond) {
+        try {
+            admissionQueueService.openQueue(eventId, admitPerSecond);
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Admission queue opened");
+            return ResponseEntity.ok(response);
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(createErrorResponse(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Close the admission queue of an event for admin; bookings go straight through again
+     */
+    @DeleteMapping("/admin/queue/{eventId}")
+    public ResponseEntity<?> closeQueue(@PathVariable Long eventId) {
+        admissionQueueService.closeQueue(eventId);
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Admission queue closed");
+        return ResponseEntity.ok(response);
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<?> cancelTicket(@PathVariable Long id) {
         try {
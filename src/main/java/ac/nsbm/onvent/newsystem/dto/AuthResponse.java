@@ -1,6 +1,7 @@
 package ac.nsbm.onvent.newsystem.dto;
 
 import ac.nsbm.onvent.newsystem.entity.Role;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
@@ -13,4 +14,18 @@ public class AuthResponse {
     private String email;
     private Role role;
     private String message;
-}
\ No newline at end of file
+    
+    // Only set in token authentication mode
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String accessToken;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String refreshToken;
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String tokenType;
+    
+    // Seconds until the access token expires
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long expiresIn;
+}
@@ -12,6 +12,7 @@ public class AvailabilityResponse {
     private String eventTitle;
     private Integer seats;
     private Integer bookedSeats;
+    private Integer heldSeats;
     private Integer availableSeats;
     private boolean isAvailable;
 }
@@ -1,5 +1,6 @@
 package ac.nsbm.onvent.newsystem.dto;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -15,5 +16,9 @@ public class BookingRequest {
     private Long ticketTypeId;
     
     @Min(value = 1, message = "Number of tickets must be at least 1")
+    @Max(value = 10, message = "Number of tickets must be at most 10")
     private Integer numberOfTickets;
+    
+    // Admission token from the event's queue; only needed while the event's queue is open
+    private String queueToken;
 }
\ No newline at end of file
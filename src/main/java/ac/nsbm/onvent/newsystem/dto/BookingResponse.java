@@ -4,6 +4,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -21,4 +22,15 @@ public class BookingResponse {
     private LocalDateTime purchaseDate;
     private String status;
     private Integer availableSeats;
+    private Integer numberOfTickets;
+    private List<String> ticketCodes;
+    // What the whole booking cost, at the ticket type's price when one was chosen; set on new bookings only
+    private Double totalPrice;
+    
+    public BookingResponse(Long ticketId, String ticketCode, Long userId, String userName, Long eventId,
+                           String eventTitle, String eventLocation, LocalDateTime eventDate, Double eventPrice,
+                           LocalDateTime purchaseDate, String status, Integer availableSeats) {
+        this(ticketId, ticketCode, userId, userName, eventId, eventTitle, eventLocation, eventDate, eventPrice,
+                purchaseDate, status, availableSeats, 1, List.of(ticketCode), null);
+    }
 }
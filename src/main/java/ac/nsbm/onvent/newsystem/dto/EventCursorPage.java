@@ -0,0 +1,22 @@
+package ac.nsbm.onvent.newsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paged event search.
+ * nextCursor is passed back as the cursor parameter to get the following page; it is null on the last page.
+ * totalElements is only filled in when the client asks for it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventCursorPage {
+    private List<EventDTO> content;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalElements;
+}
@@ -0,0 +1,23 @@
+package ac.nsbm.onvent.newsystem.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueueStatusResponse {
+    // NO_QUEUE: book directly; WAITING: poll again after pollAfterSeconds; ADMITTED: book with the token before admittedUntil
+    private Long eventId;
+    private String status;
+    private String token;
+    private Long position;
+    private Long estimatedWaitSeconds;
+    private Integer pollAfterSeconds;
+    private LocalDateTime admittedUntil;
+}
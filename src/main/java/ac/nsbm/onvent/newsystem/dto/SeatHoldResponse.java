@@ -0,0 +1,19 @@
+package ac.nsbm.onvent.newsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldResponse {
+    private String holdId;
+    private Long eventId;
+    private Long ticketTypeId;
+    private Integer numberOfTickets;
+    private LocalDateTime expiresAt;
+    private Integer availableSeats;
+}
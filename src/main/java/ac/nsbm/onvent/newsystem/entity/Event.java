@@ -5,7 +5,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "events")
+// Mirrors the V9 migration for generated schemas; the category and full-text indexes are PostgreSQL expressions (V10, V13)
+@Table(name = "events", indexes = {
+    @Index(name = "idx_events_date_id", columnList = "date, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -44,6 +47,11 @@ public class Event {
     @Column(name = "max_attendees")
     private Integer maxAttendees;
     
+    // Maintained only by the conditional updates in EventRepository, never by entity updates
+    @Column(name = "seats_sold", nullable = false, updatable = false)
+    @Builder.Default
+    private Integer seatsSold = 0;
+    
     @Column(name = "image")
     private String image;
     
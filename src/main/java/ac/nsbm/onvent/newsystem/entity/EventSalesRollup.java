@@ -0,0 +1,26 @@
+package ac.nsbm.onvent.newsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Running totals of active tickets and revenue for one event.
+ * Kept up to date by every booking and cancellation so the admin dashboard does not scan tickets.
+ */
+@Entity
+@Table(name = "event_sales_rollup")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSalesRollup {
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+    
+    @Column(name = "tickets_sold", nullable = false)
+    private Long ticketsSold;
+    
+    @Column(nullable = false)
+    private Double revenue;
+}
@@ -0,0 +1,58 @@
+package ac.nsbm.onvent.newsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String type;
+    
+    @Column(nullable = false)
+    private String recipient;
+    
+    // Notification content as JSON, e.g. the serialized BookingResponse
+    @Column(nullable = false, length = 4000)
+    private String payload;
+    
+    @Column(nullable = false)
+    private String status;
+    
+    @Column(nullable = false)
+    private Integer attempts;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    // Enum for outbox status
+    public enum OutboxStatus {
+        PENDING, SENDING, SENT, FAILED
+    }
+    
+    // Enum for notification type
+    public enum NotificationType {
+        BOOKING_CONFIRMATION
+    }
+}
@@ -5,14 +5,21 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tickets")
+// Mirrors the V11 migration for generated schemas; on PostgreSQL the ticket type and user indexes are partial on ACTIVE tickets
+@Table(name = "tickets", indexes = {
+    @Index(name = "idx_tickets_event_status", columnList = "event_id, status"),
+    @Index(name = "idx_tickets_ticket_type_active", columnList = "ticket_type_id, status"),
+    @Index(name = "idx_tickets_user_active", columnList = "user_id, status, purchase_date DESC, id DESC")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Ticket {
+    // Pooled sequence so multi-ticket bookings can be inserted as one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tickets_id_seq")
+    @SequenceGenerator(name = "tickets_id_seq", sequenceName = "tickets_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,6 +43,10 @@ public class Ticket {
     @Column(nullable = false)
     private String status;
     
+    // Price the ticket was bought at, so later price changes do not alter sales already made (V12)
+    @Column(name = "price_paid", nullable = false)
+    private Double pricePaid;
+    
     // Enum for ticket status
     public enum TicketStatus {
         ACTIVE, CANCELLED
@@ -5,7 +5,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "ticket_types")
+@Table(name = "ticket_types", indexes = {
+    @Index(name = "idx_ticket_types_event", columnList = "event_id")
+})
 public class TicketType {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,6 +22,10 @@ public class TicketType {
     @Column(name = "quantity", nullable = false)
     private Integer quantity;
     
+    // Maintained only by the conditional updates in TicketTypeRepository, never by entity updates
+    @Column(name = "seats_sold", nullable = false, updatable = false)
+    private Integer seatsSold = 0;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "event_id", nullable = false)
     private Event event;
@@ -70,6 +76,14 @@ public class TicketType {
         this.quantity = quantity;
     }
     
+    public Integer getSeatsSold() {
+        return seatsSold;
+    }
+    
+    public void setSeatsSold(Integer seatsSold) {
+        this.seatsSold = seatsSold;
+    }
+    
     public Event getEvent() {
         return event;
     }
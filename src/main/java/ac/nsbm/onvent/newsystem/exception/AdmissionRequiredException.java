@@ -0,0 +1,10 @@
+package ac.nsbm.onvent.newsystem.exception;
+
+/**
+ * Thrown when an event's on-sale runs through the admission queue and the booking has no valid admission.
+ */
+public class AdmissionRequiredException extends RuntimeException {
+    public AdmissionRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package ac.nsbm.onvent.newsystem.exception;
+
+/**
+ * Thrown when a bounded resource is saturated and the request is shed instead of queued.
+ * Reported to the client as 503 Service Unavailable so it can retry later.
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,86 @@
+package ac.nsbm.onvent.newsystem.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage of the per-event admission queues used during high-demand on-sales.
+ *
+ * Every entry has a sequence number in its event's queue; entries are admitted strictly in sequence order,
+ * so a waiting entry's position is its sequence minus the sequence of the last entry admitted.
+ * The default implementation keeps everything in memory on one node. A shared implementation (Redis, a table)
+ * marked @Primary replaces it without touching the service; the admission tick must then run on one node only.
+ */
+public interface AdmissionQueueStore {
+
+    record Entry(String token, Long eventId, Long userId, long sequence, Instant admittedAt) {
+        public boolean isAdmitted() {
+            return admittedAt != null;
+        }
+    }
+
+    /**
+     * Open the queue of an event, or change its admission rate if it is already open
+     */
+    void open(Long eventId, int admitPerSecond);
+
+    /**
+     * Close the queue of an event and drop its entries
+     */
+    void close(Long eventId);
+
+    /**
+     * @return The admission rate per second of every open queue, by event id
+     */
+    Map<Long, Integer> openQueues();
+
+    /**
+     * @return The admission rate per second of the event's queue, empty if it has no open queue
+     */
+    Optional<Integer> admitRate(Long eventId);
+
+    /**
+     * Put a user at the back of an event's queue
+     * @return The user's existing entry if they already joined, otherwise a new entry with the given token
+     */
+    Entry join(Long eventId, Long userId, String token);
+
+    Optional<Entry> find(String token);
+
+    /**
+     * @return The sequence number of the last entry admitted to the event, 0 if none
+     */
+    long admittedThrough(Long eventId);
+
+    /**
+     * Admit up to count waiting entries from the front of an event's queue
+     * @return The entries admitted, in queue order
+     */
+    List<Entry> admit(Long eventId, int count, Instant now);
+
+    /**
+     * Atomically take an admitted entry out of its queue, if it is the given user's admission to the given event.
+     * Of several callers with the same token at most one gets the entry.
+     * @return The entry removed, or empty if there is no such admitted entry
+     */
+    Optional<Entry> consume(String token, Long eventId, Long userId);
+
+    /**
+     * Put a consumed admission back, e.g. because its booking failed. Nothing happens if the queue was closed
+     * or the user joined the queue again in the meantime.
+     */
+    void restore(Entry entry);
+
+    /**
+     * Remove an entry, waiting or admitted
+     */
+    void remove(String token);
+
+    /**
+     * Remove admitted entries that were not used in time
+     * @return The number of entries removed
+     */
+    int expireAdmitted(Instant admittedBefore);
+}
@@ -1,15 +1,22 @@
 package ac.nsbm.onvent.newsystem.repository;
 
+import ac.nsbm.onvent.newsystem.dto.EventDTO;
 import ac.nsbm.onvent.newsystem.entity.Event;
 import ac.nsbm.onvent.newsystem.repository.custom.CustomEventRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long>, CustomEventRepository {
@@ -18,6 +25,40 @@ public interface EventRepository extends JpaRepository<Event, Long>, CustomEvent
     Page<Event> findByDateAfter(LocalDateTime date, Pageable pageable);
     
     List<Event> findBySeatsGreaterThan(Integer seats);
+    
+    @Query("SELECT e FROM Event e JOIN FETCH e.organizer WHERE e.id = :id")
+    Optional<Event> findWithOrganizerById(@Param("id") Long id);
+    
+    // Listing projection: the organizer name comes from the same join, and no entities are managed
+    String EVENT_SUMMARY_SELECT = "SELECT new ac.nsbm.onvent.newsystem.dto.EventDTO(e.id, e.title, e.description, " +
+            "e.location, e.date, e.category, e.price, e.seats, e.image, o.id, o.name) FROM Event e JOIN e.organizer o";
+    
+    @Query(value = EVENT_SUMMARY_SELECT, countQuery = "SELECT COUNT(e) FROM Event e")
+    Page<EventDTO> findEventSummaries(Pageable pageable);
+    
+    // Cursor over every event for streaming; must be consumed inside a transaction and closed
+    @Query(EVENT_SUMMARY_SELECT + " ORDER BY e.date, e.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    Stream<EventDTO> streamEventSummaries();
+
+    /**
+     * Atomically take seats if the event still has capacity.
+     * @return 1 if the seats were reserved, 0 if the event is sold out
+     */
+    @Modifying
+    @Query("UPDATE Event e SET e.seatsSold = e.seatsSold + :seats WHERE e.id = :eventId AND e.seatsSold + :seats <= e.seats")
+    int reserveSeats(@Param("eventId") Long eventId, @Param("seats") int seats);
+    
+    /**
+     * Count seats against the event without a capacity check (ticket type bookings are limited by their own quantity)
+     */
+    @Modifying
+    @Query("UPDATE Event e SET e.seatsSold = e.seatsSold + :seats WHERE e.id = :eventId")
+    int addSeatsSold(@Param("eventId") Long eventId, @Param("seats") int seats);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.seatsSold = e.seatsSold - :seats WHERE e.id = :eventId AND e.seatsSold >= :seats")
+    int releaseSeats(@Param("eventId") Long eventId, @Param("seats") int seats);
 
     @Query(value = "SELECT column_name, data_type FROM information_schema.columns WHERE table_name = 'events' ORDER BY ordinal_position", nativeQuery = true)
     List<Object[]> getEventTableColumns();
@@ -0,0 +1,23 @@
+package ac.nsbm.onvent.newsystem.repository;
+
+import ac.nsbm.onvent.newsystem.dto.DashboardStatsDTO;
+import ac.nsbm.onvent.newsystem.entity.EventSalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventSalesRollupRepository extends JpaRepository<EventSalesRollup, Long> {
+    
+    // Returns 0 when the event has no rollup row yet
+    @Modifying
+    @Query("UPDATE EventSalesRollup r SET r.ticketsSold = r.ticketsSold + :tickets, r.revenue = r.revenue + :revenue WHERE r.eventId = :eventId")
+    int addSales(@Param("eventId") Long eventId, @Param("tickets") long tickets, @Param("revenue") double revenue);
+    
+    // Reads one row per event with sales instead of one row per ticket
+    @Query("SELECT new ac.nsbm.onvent.newsystem.dto.DashboardStatsDTO((SELECT COUNT(e) FROM Event e), " +
+           "COALESCE(SUM(r.ticketsSold), 0L), COALESCE(SUM(r.revenue), 0.0)) FROM EventSalesRollup r")
+    DashboardStatsDTO getDashboardStats();
+}
@@ -0,0 +1,190 @@
+package ac.nsbm.onvent.newsystem.repository;
+
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admission queues held in memory on this node. Each event's queue has its own lock,
+ * so joins to different on-sales never contend.
+ */
+@Repository
+public class InMemoryAdmissionQueueStore implements AdmissionQueueStore {
+
+    private final Map<Long, EventQueue> queues = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public void open(Long eventId, int admitPerSecond) {
+        queues.computeIfAbsent(eventId, id -> new EventQueue()).admitPerSecond = admitPerSecond;
+    }
+
+    @Override
+    public void close(Long eventId) {
+        EventQueue queue = queues.remove(eventId);
+        if (queue != null) {
+            synchronized (queue) {
+                queue.byUser.values().forEach(entries::remove);
+            }
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> openQueues() {
+        Map<Long, Integer> open = new HashMap<>();
+        queues.forEach((eventId, queue) -> open.put(eventId, queue.admitPerSecond));
+        return open;
+    }
+
+    @Override
+    public Optional<Integer> admitRate(Long eventId) {
+        EventQueue queue = queues.get(eventId);
+        return queue == null ? Optional.empty() : Optional.of(queue.admitPerSecond);
+    }
+
+    @Override
+    public Entry join(Long eventId, Long userId, String token) {
+        EventQueue queue = queues.get(eventId);
+        if (queue == null) {
+            throw new IllegalStateException("No admission queue is open for event " + eventId);
+        }
+        synchronized (queue) {
+            String existing = queue.byUser.get(userId);
+            Entry current = existing == null ? null : entries.get(existing);
+            if (current != null) {
+                return current;
+            }
+            Entry entry = new Entry(token, eventId, userId, ++queue.lastSequence, null);
+            queue.waiting.put(token, entry);
+            queue.byUser.put(userId, token);
+            entries.put(token, entry);
+            return entry;
+        }
+    }
+
+    @Override
+    public Optional<Entry> find(String token) {
+        return Optional.ofNullable(entries.get(token));
+    }
+
+    @Override
+    public long admittedThrough(Long eventId) {
+        EventQueue queue = queues.get(eventId);
+        if (queue == null) {
+            return 0;
+        }
+        synchronized (queue) {
+            return queue.admittedThrough;
+        }
+    }
+
+    @Override
+    public List<Entry> admit(Long eventId, int count, Instant now) {
+        EventQueue queue = queues.get(eventId);
+        List<Entry> admitted = new ArrayList<>();
+        if (queue == null) {
+            return admitted;
+        }
+        synchronized (queue) {
+            Iterator<Entry> waiting = queue.waiting.values().iterator();
+            while (admitted.size() < count && waiting.hasNext()) {
+                Entry entry = waiting.next();
+                waiting.remove();
+                Entry admittedEntry = new Entry(entry.token(), eventId, entry.userId(), entry.sequence(), now);
+                entries.put(entry.token(), admittedEntry);
+                queue.admitted.put(entry.token(), admittedEntry);
+                queue.admittedThrough = entry.sequence();
+                admitted.add(admittedEntry);
+            }
+        }
+        return admitted;
+    }
+
+    @Override
+    public Optional<Entry> consume(String token, Long eventId, Long userId) {
+        EventQueue queue = queues.get(eventId);
+        if (queue == null) {
+            return Optional.empty();
+        }
+        synchronized (queue) {
+            Entry entry = queue.admitted.get(token);
+            if (entry == null || !entry.userId().equals(userId)) {
+                return Optional.empty();
+            }
+            queue.admitted.remove(token);
+            queue.byUser.remove(userId, token);
+            entries.remove(token);
+            return Optional.of(entry);
+        }
+    }
+
+    @Override
+    public void restore(Entry entry) {
+        EventQueue queue = queues.get(entry.eventId());
+        if (queue == null) {
+            return;
+        }
+        synchronized (queue) {
+            if (queue.byUser.putIfAbsent(entry.userId(), entry.token()) != null) {
+                return;
+            }
+            queue.admitted.put(entry.token(), entry);
+            entries.put(entry.token(), entry);
+        }
+    }
+
+    @Override
+    public void remove(String token) {
+        Entry entry = entries.remove(token);
+        if (entry == null) {
+            return;
+        }
+        EventQueue queue = queues.get(entry.eventId());
+        if (queue != null) {
+            synchronized (queue) {
+                queue.waiting.remove(token);
+                queue.admitted.remove(token);
+                queue.byUser.remove(entry.userId(), token);
+            }
+        }
+    }
+
+    @Override
+    public int expireAdmitted(Instant admittedBefore) {
+        int expired = 0;
+        for (EventQueue queue : queues.values()) {
+            synchronized (queue) {
+                // Restored passes go to the back, so the whole map is checked rather than stopping at the first live pass
+                Iterator<Entry> admitted = queue.admitted.values().iterator();
+                while (admitted.hasNext()) {
+                    Entry entry = admitted.next();
+                    if (!entry.admittedAt().isBefore(admittedBefore)) {
+                        continue;
+                    }
+                    admitted.remove();
+                    queue.byUser.remove(entry.userId(), entry.token());
+                    entries.remove(entry.token());
+                    expired++;
+                }
+            }
+        }
+        return expired;
+    }
+
+    private static final class EventQueue {
+        private volatile int admitPerSecond;
+        private long lastSequence;
+        private long admittedThrough;
+        private final LinkedHashMap<String, Entry> waiting = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Entry> admitted = new LinkedHashMap<>();
+        private final Map<Long, String> byUser = new HashMap<>();
+    }
+}
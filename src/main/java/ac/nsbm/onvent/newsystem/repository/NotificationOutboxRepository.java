@@ -0,0 +1,54 @@
+package ac.nsbm.onvent.newsystem.repository;
+
+import ac.nsbm.onvent.newsystem.entity.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+    
+    /**
+     * Lock the next due notifications, skipping rows another worker has locked (FOR UPDATE SKIP LOCKED),
+     * so concurrent workers take different batches instead of waiting on each other
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2")) // LockOptions.SKIP_LOCKED
+    @Query("SELECT n FROM NotificationOutbox n WHERE n.status = 'PENDING' AND n.nextAttemptAt <= :now ORDER BY n.id")
+    List<NotificationOutbox> lockDue(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    /**
+     * Claim locked notifications for sending in one statement; the status check keeps a claim from being taken twice
+     * @return Number of notifications claimed
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE NotificationOutbox n SET n.status = 'SENDING', n.lockedAt = :now WHERE n.id IN :ids AND n.status = 'PENDING'")
+    int claimAll(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
+    /**
+     * Record a batch of claimed notifications as sent
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = 'SENT', n.attempts = n.attempts + 1, n.sentAt = :now, " +
+           "n.lockedAt = null, n.lastError = null WHERE n.id IN :ids AND n.status = 'SENDING'")
+    int markSent(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
+    /**
+     * Put notifications back in the queue when the worker that claimed them died before finishing
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox n SET n.status = 'PENDING', n.lockedAt = null WHERE n.status = 'SENDING' AND n.lockedAt < :cutoff")
+    int releaseStale(@Param("cutoff") LocalDateTime cutoff);
+    
+    long countByStatus(String status);
+}
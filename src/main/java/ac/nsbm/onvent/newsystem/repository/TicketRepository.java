@@ -1,5 +1,7 @@
 package ac.nsbm.onvent.newsystem.repository;
 
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.dto.DashboardStatsDTO;
 import ac.nsbm.onvent.newsystem.entity.Ticket;
 import ac.nsbm.onvent.newsystem.entity.User;
 import ac.nsbm.onvent.newsystem.entity.Event;
@@ -7,9 +9,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
@@ -24,6 +30,40 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.ticketType.id = :ticketTypeId AND t.status = 'ACTIVE'")
     Long countActiveTicketsByTicketTypeId(@Param("ticketTypeId") Long ticketTypeId);
     
+    @Query("SELECT t.event.id, COUNT(t) FROM Ticket t WHERE t.status = 'ACTIVE' GROUP BY t.event.id")
+    List<Object[]> countActiveTicketsGroupedByEventId();
+    
+    @Query("SELECT t.ticketType.id, COUNT(t) FROM Ticket t WHERE t.ticketType IS NOT NULL AND t.status = 'ACTIVE' GROUP BY t.ticketType.id")
+    List<Object[]> countActiveTicketsGroupedByTicketTypeId();
+    
+    // Event count, active tickets and their revenue in one query, at the price each ticket was bought at
+    @Query("SELECT new ac.nsbm.onvent.newsystem.dto.DashboardStatsDTO((SELECT COUNT(ev) FROM Event ev), " +
+           "COUNT(t), COALESCE(SUM(t.pricePaid), 0.0)) FROM Ticket t WHERE t.status = 'ACTIVE'")
+    DashboardStatsDTO getDashboardStats();
+    
     @Query("SELECT t FROM Ticket t WHERE t.user.id = :userId AND t.status = 'ACTIVE'")
     List<Ticket> findActiveTicketsByUserId(@Param("userId") Long userId);
+    
+    // Active bookings of a user projected straight into the response, newest first.
+    // Availability comes from the maintained seats_sold counters, so no count query runs per row.
+    String ACTIVE_BOOKINGS_BY_USER_QUERY = "SELECT new ac.nsbm.onvent.newsystem.dto.BookingResponse(" +
+            "t.id, t.ticketCode, u.id, u.name, e.id, e.title, e.location, e.date, e.price, t.purchaseDate, t.status, " +
+            "CASE WHEN tt.id IS NOT NULL THEN tt.quantity - tt.seatsSold ELSE e.seats - e.seatsSold END) " +
+            "FROM Ticket t JOIN t.user u JOIN t.event e LEFT JOIN t.ticketType tt " +
+            "WHERE u.id = :userId AND t.status = 'ACTIVE' ORDER BY t.purchaseDate DESC, t.id DESC";
+    
+    @Query(value = ACTIVE_BOOKINGS_BY_USER_QUERY,
+           countQuery = "SELECT COUNT(t) FROM Ticket t WHERE t.user.id = :userId AND t.status = 'ACTIVE'")
+    Page<BookingResponse> findActiveBookingsByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query(ACTIVE_BOOKINGS_BY_USER_QUERY)
+    List<BookingResponse> findActiveBookingsByUserId(@Param("userId") Long userId);
+    
+    // Cursor over an event's tickets for bulk export; must be consumed inside a transaction and closed
+    @Query("SELECT t FROM Ticket t JOIN FETCH t.user JOIN FETCH t.event WHERE t.event.id = :eventId AND t.status = 'ACTIVE' ORDER BY t.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Ticket> streamActiveTicketsByEventId(@Param("eventId") Long eventId);
 }
\ No newline at end of file
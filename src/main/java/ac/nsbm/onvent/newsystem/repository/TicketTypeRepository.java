@@ -2,8 +2,23 @@ package ac.nsbm.onvent.newsystem.repository;
 
 import ac.nsbm.onvent.newsystem.entity.TicketType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TicketTypeRepository extends JpaRepository<TicketType, Long> {
-}
\ No newline at end of file
+    
+    /**
+     * Atomically take seats if the ticket type still has quantity left.
+     * @return 1 if the seats were reserved, 0 if the ticket type is sold out
+     */
+    @Modifying
+    @Query("UPDATE TicketType tt SET tt.seatsSold = tt.seatsSold + :seats WHERE tt.id = :ticketTypeId AND tt.seatsSold + :seats <= tt.quantity")
+    int reserveSeats(@Param("ticketTypeId") Long ticketTypeId, @Param("seats") int seats);
+    
+    @Modifying
+    @Query("UPDATE TicketType tt SET tt.seatsSold = tt.seatsSold - :seats WHERE tt.id = :ticketTypeId AND tt.seatsSold >= :seats")
+    int releaseSeats(@Param("ticketTypeId") Long ticketTypeId, @Param("seats") int seats);
+}
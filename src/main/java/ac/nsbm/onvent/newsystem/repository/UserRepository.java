@@ -1,8 +1,11 @@
 package ac.nsbm.onvent.newsystem.repository;
 
+import ac.nsbm.onvent.newsystem.config.CacheConfig;
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
 import ac.nsbm.onvent.newsystem.entity.User;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -13,6 +16,40 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
     
-    @Query("SELECT u FROM User u WHERE u.username = ?1 OR u.email = ?1")
-    Optional<User> findByUsernameOrEmail(String usernameOrEmail);
-}
\ No newline at end of file
+    // Two unique-index lookups instead of one OR query, which databases may answer with a table scan;
+    // authenticated requests resolve the username, so they take the first lookup only.
+    // Not cached: logins and token refreshes always check the current password and role.
+    default Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
+        return findByUsername(usernameOrEmail).or(() -> findByEmail(usernameOrEmail));
+    }
+    
+    // Cached as an immutable principal without the password hash, never as the managed entity.
+    // Found users are cached; unknown names are not, so a user is found as soon as they sign up.
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#usernameOrEmail", unless = "#result == null")
+    default Optional<UserPrincipal> findPrincipalByUsernameOrEmail(String usernameOrEmail) {
+        return findByUsernameOrEmail(usernameOrEmail)
+                .map(user -> UserPrincipal.of(user.getId(), user.getUsername(), user.getName(), user.getEmail(), user.getRole()));
+    }
+    
+    // Users are written rarely, so any write clears the whole users cache
+    
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
+    <S extends User> S save(S user);
+    
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
+    <S extends User> S saveAndFlush(S user);
+    
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
+    void deleteById(Long id);
+    
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
+    void delete(User user);
+    
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS, allEntries = true)
+    void deleteAll();
+}
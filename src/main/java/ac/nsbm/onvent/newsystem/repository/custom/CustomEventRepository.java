@@ -5,7 +5,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public interface CustomEventRepository {
     Page<Event> findEventsWithFilters(String title, String category, LocalDateTime date, Pageable pageable);
-}
\ No newline at end of file
+    
+    /**
+     * Keyset page of the filtered events ordered by (date, id), starting right after the cursor.
+     * @param after Last event of the previous page, or null for the first page
+     * @param limit Maximum number of events to return
+     */
+    List<Event> findEventsWithFiltersAfter(String title, String category, LocalDateTime date, EventCursor after, int limit);
+    
+    long countEventsWithFilters(String title, String category, LocalDateTime date);
+}
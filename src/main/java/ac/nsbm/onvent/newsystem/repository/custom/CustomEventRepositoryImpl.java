@@ -4,72 +4,256 @@ import ac.nsbm.onvent.newsystem.entity.Event;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
+/**
+ * Event search with filters.
+ *
+ * The title parameter is a free-text query matched against title, category, location and description,
+ * with prefix matching on every word and results ranked by relevance (title weighs most, description least).
+ * On PostgreSQL it runs against the search_vector column and its GIN index (V10 migration); on other
+ * databases, such as H2 in tests, an equivalent LIKE-based word prefix match and CASE-based rank is used.
+ * The native full-text query only picks the ids of a page; the events and their organizers are then read
+ * with one JPQL fetch. EventSearchPostgresTest runs it against PostgreSQL; onvent.search.full-text-index=false
+ * turns it off.
+ * The category filter matches categories containing the given text, ignoring case, with LIKE wildcards
+ * in the text taken literally.
+ */
 @Repository
 public class CustomEventRepositoryImpl implements CustomEventRepository {
     
+    private static final Logger logger = LoggerFactory.getLogger(CustomEventRepositoryImpl.class);
+    
+    private static final int MAX_SEARCH_TERMS = 8;
+    
     @PersistenceContext
     private EntityManager entityManager;
     
+    @Value("${onvent.search.full-text-index:true}")
+    private boolean fullTextIndexEnabled;
+    
+    // Resolved on first search: whether the PostgreSQL full-text column is available
+    private volatile Boolean fullTextIndex;
+    
     @Override
     public Page<Event> findEventsWithFilters(String title, String category, LocalDateTime date, Pageable pageable) {
-        StringBuilder countQueryStr = new StringBuilder("SELECT COUNT(e) FROM Event e WHERE 1=1");
-        StringBuilder dataQueryStr = new StringBuilder("SELECT e FROM Event e WHERE 1=1");
+        long total = countEventsWithFilters(title, category, date);
         
-        if (title != null && !title.isEmpty()) {
-            countQueryStr.append(" AND LOWER(e.title) LIKE LOWER(CONCAT('%', :title, '%'))");
-            dataQueryStr.append(" AND LOWER(e.title) LIKE LOWER(CONCAT('%', :title, '%'))");
-        }
+        EventSearch search = new EventSearch(title, category, date);
+        String orderBy = search.hasText()
+                ? " ORDER BY " + search.rank() + " DESC, e.date, e.id"
+                : " ORDER BY e.date, e.id";
         
-        if (category != null && !category.isEmpty()) {
-            countQueryStr.append(" AND LOWER(e.category) LIKE LOWER(CONCAT('%', :category, '%'))");
-            dataQueryStr.append(" AND LOWER(e.category) LIKE LOWER(CONCAT('%', :category, '%'))");
+        // Data query
+        Query dataQuery = search.createQuery(search.select() + search.where() + orderBy, Event.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        search.bind(dataQuery);
+        
+        return new PageImpl<>(search.results(dataQuery), pageable, total);
+    }
+    
+    @Override
+    public List<Event> findEventsWithFiltersAfter(String title, String category, LocalDateTime date, EventCursor after, int limit) {
+        EventSearch search = new EventSearch(title, category, date);
+        StringBuilder dataQueryStr = new StringBuilder(search.select()).append(search.where());
+        
+        // Seek past the cursor instead of skipping rows, so every page costs the same
+        if (after != null) {
+            dataQueryStr.append(" AND (e.date > :afterDate OR (e.date = :afterDate AND e.id > :afterId))");
         }
+        dataQueryStr.append(" ORDER BY e.date, e.id");
         
-        if (date != null) {
-            countQueryStr.append(" AND e.date >= :date");
-            dataQueryStr.append(" AND e.date >= :date");
+        Query dataQuery = search.createQuery(dataQueryStr.toString(), Event.class)
+                .setMaxResults(limit);
+        search.bind(dataQuery);
+        if (after != null) {
+            dataQuery.setParameter("afterDate", after.date());
+            dataQuery.setParameter("afterId", after.id());
         }
         
-        dataQueryStr.append(" ORDER BY e.date");
+        return search.results(dataQuery);
+    }
+    
+    @Override
+    public long countEventsWithFilters(String title, String category, LocalDateTime date) {
+        EventSearch search = new EventSearch(title, category, date);
+        String countQueryStr = (search.nativeSql ? "SELECT COUNT(*) FROM events e" : "SELECT COUNT(e) FROM Event e") + search.where();
         
-        // Count query
-        Query countQuery = entityManager.createQuery(countQueryStr.toString());
-        if (title != null && !title.isEmpty()) {
-            countQuery.setParameter("title", title);
+        Query countQuery = search.createQuery(countQueryStr, null);
+        search.bind(countQuery);
+        return ((Number) countQuery.getSingleResult()).longValue();
+    }
+    
+    private boolean useFullTextIndex() {
+        if (!fullTextIndexEnabled) {
+            return false;
         }
-        if (category != null && !category.isEmpty()) {
-            countQuery.setParameter("category", category);
+        Boolean available = fullTextIndex;
+        if (available == null) {
+            boolean postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+            available = postgres && ((Number) entityManager.createNativeQuery(
+                    "SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'events' AND column_name = 'search_vector'")
+                    .getSingleResult()).intValue() > 0;
+            if (postgres && !available) {
+                logger.warn("events.search_vector is missing; event search falls back to LIKE matching until V10 is applied");
+            }
+            fullTextIndex = available;
         }
-        if (date != null) {
-            countQuery.setParameter("date", date);
+        return available;
+    }
+    
+    /**
+     * Filters of one search, written either as JPQL or, when the full-text index is used, as native SQL.
+     * Both share the e alias and column names, so only the text match and rank differ.
+     */
+    private final class EventSearch {
+        private final boolean nativeSql;
+        private final List<String> terms;
+        private final String category;
+        private final LocalDateTime date;
+        
+        private EventSearch(String text, String category, LocalDateTime date) {
+            this.terms = text != null ? tokenize(text) : List.of();
+            this.nativeSql = !terms.isEmpty() && useFullTextIndex();
+            this.category = category;
+            this.date = date;
         }
-        long total = (Long) countQuery.getSingleResult();
         
-        // Data query
-        Query dataQuery = entityManager.createQuery(dataQueryStr.toString(), Event.class)
-                .setFirstResult((int) pageable.getOffset())
-                .setMaxResults(pageable.getPageSize());
+        private boolean hasText() {
+            return !terms.isEmpty();
+        }
+        
+        private String select() {
+            // Organizer is fetched with the page since every result shows the organizer name;
+            // the native query selects ids only and the events are fetched afterwards, see results()
+            return nativeSql ? "SELECT e.id FROM events e" : "SELECT e FROM Event e JOIN FETCH e.organizer";
+        }
+        
+        /**
+         * Events of a data query, in its order. A native query returned ids, so the events are read by id
+         * with their organizers in one more query rather than one organizer query per event.
+         */
+        @SuppressWarnings("unchecked")
+        private List<Event> results(Query dataQuery) {
+            if (!nativeSql) {
+                return dataQuery.getResultList();
+            }
+            List<Long> ids = ((List<Number>) dataQuery.getResultList()).stream().map(Number::longValue).toList();
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            List<Event> events = new ArrayList<>(entityManager
+                    .createQuery("SELECT e FROM Event e JOIN FETCH e.organizer WHERE e.id IN :ids", Event.class)
+                    .setParameter("ids", ids)
+                    .getResultList());
+            events.sort(Comparator.comparingInt(event -> ids.indexOf(event.getId())));
+            return events;
+        }
         
-        if (title != null && !title.isEmpty()) {
-            dataQuery.setParameter("title", title);
+        private String where() {
+            StringBuilder where = new StringBuilder(" WHERE 1=1");
+            if (hasText()) {
+                where.append(" AND ").append(textMatch());
+            }
+            
+            if (category != null && !category.isEmpty()) {
+                // Substring match, served on PostgreSQL by the trigram index on LOWER(category) (V13 migration)
+                where.append(" AND LOWER(e.category) LIKE :category ESCAPE '\\'");
+            }
+            
+            if (date != null) {
+                where.append(" AND e.date >= :date");
+            }
+            return where.toString();
         }
-        if (category != null && !category.isEmpty()) {
-            dataQuery.setParameter("category", category);
+        
+        private String textMatch() {
+            if (nativeSql) {
+                return "e.search_vector @@ to_tsquery('simple', :textQuery)";
+            }
+            // Every term must start a word somewhere in the searchable text
+            List<String> matches = new ArrayList<>();
+            for (int i = 0; i < terms.size(); i++) {
+                matches.add("LOWER(CONCAT(' ', e.title, ' ', COALESCE(e.category, ''), ' ', e.location, ' ', COALESCE(e.description, ''))) LIKE :term" + i);
+            }
+            return "(" + String.join(" AND ", matches) + ")";
         }
-        if (date != null) {
-            dataQuery.setParameter("date", date);
+        
+        /**
+         * Relevance of a matching event; weights follow ts_rank's defaults for the A to D labels
+         */
+        private String rank() {
+            if (nativeSql) {
+                return "ts_rank(e.search_vector, to_tsquery('simple', :textQuery))";
+            }
+            List<String> scores = new ArrayList<>();
+            for (int i = 0; i < terms.size(); i++) {
+                scores.add("CASE WHEN LOWER(CONCAT(' ', e.title)) LIKE :term" + i + " THEN 1.0 ELSE 0 END");
+                scores.add("CASE WHEN LOWER(CONCAT(' ', COALESCE(e.category, ''))) LIKE :term" + i + " THEN 0.4 ELSE 0 END");
+                scores.add("CASE WHEN LOWER(CONCAT(' ', e.location)) LIKE :term" + i + " THEN 0.2 ELSE 0 END");
+                scores.add("CASE WHEN LOWER(CONCAT(' ', COALESCE(e.description, ''))) LIKE :term" + i + " THEN 0.1 ELSE 0 END");
+            }
+            return "(" + String.join(" + ", scores) + ")";
         }
         
-        List<Event> events = dataQuery.getResultList();
+        private Query createQuery(String queryStr, Class<Event> resultClass) {
+            if (nativeSql) {
+                return entityManager.createNativeQuery(queryStr);
+            }
+            return resultClass != null
+                    ? entityManager.createQuery(queryStr, resultClass)
+                    : entityManager.createQuery(queryStr);
+        }
         
-        return new PageImpl<>(events, pageable, total);
+        private void bind(Query query) {
+            Map<String, Object> parameters = new HashMap<>();
+            if (hasText()) {
+                if (nativeSql) {
+                    // Terms are letters and digits only, so they are safe inside a tsquery
+                    parameters.put("textQuery", String.join(" & ", terms.stream().map(term -> term + ":*").toList()));
+                } else {
+                    for (int i = 0; i < terms.size(); i++) {
+                        parameters.put("term" + i, "% " + terms.get(i) + "%");
+                    }
+                }
+            }
+            if (category != null && !category.isEmpty()) {
+                parameters.put("category", "%" + escapeLike(category.toLowerCase(Locale.ROOT)) + "%");
+            }
+            if (date != null) {
+                parameters.put("date", date);
+            }
+            parameters.forEach(query::setParameter);
+        }
+    }
+    
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+    
+    private static List<String> tokenize(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_SEARCH_TERMS)
+                .toList();
     }
-}
\ No newline at end of file
+}
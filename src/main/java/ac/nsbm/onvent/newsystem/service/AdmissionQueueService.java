@@ -0,0 +1,208 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.dto.QueueStatusResponse;
+import ac.nsbm.onvent.newsystem.exception.AdmissionRequiredException;
+import ac.nsbm.onvent.newsystem.exception.ResourceNotFoundException;
+import ac.nsbm.onvent.newsystem.repository.AdmissionQueueStore;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Virtual waiting room for high-demand on-sales.
+ *
+ * While an event's queue is open, users join it and get a token and a position instead of booking straight
+ * away. A scheduled tick admits waiting users in order at the queue's rate; an admitted token allows one
+ * booking of that event within the pass time-to-live. The database therefore sees bookings at the admission
+ * rate rather than the whole spike. Events without an open queue are booked as usual.
+ */
+@Service
+public class AdmissionQueueService {
+
+    public enum QueueStatus { NO_QUEUE, WAITING, ADMITTED }
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionQueueService.class);
+
+    private final AdmissionQueueStore store;
+    private final EventRepository eventRepository;
+    private final Duration passTtl;
+    private final Clock clock;
+
+    // Admission credit carried between ticks, so rates that do not divide the tick interval stay exact
+    private final Map<Long, Double> credits = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> lastTicks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AdmissionQueueService(AdmissionQueueStore store,
+                                 EventRepository eventRepository,
+                                 @Value("${onvent.admission.pass-ttl:5m}") Duration passTtl) {
+        this(store, eventRepository, passTtl, Clock.systemDefaultZone());
+    }
+
+    AdmissionQueueService(AdmissionQueueStore store, EventRepository eventRepository, Duration passTtl, Clock clock) {
+        this.store = store;
+        this.eventRepository = eventRepository;
+        this.passTtl = passTtl;
+        this.clock = clock;
+    }
+
+    /**
+     * Route bookings of an event through its admission queue
+     * @param eventId The event going on sale
+     * @param admitPerSecond How many waiting users are let through per second
+     */
+    public void openQueue(Long eventId, int admitPerSecond) {
+        if (admitPerSecond < 1) {
+            throw new IllegalArgumentException("The admission rate must be at least 1 per second");
+        }
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event not found with id: " + eventId);
+        }
+        store.open(eventId, admitPerSecond);
+        lastTicks.putIfAbsent(eventId, clock.instant());
+        logger.info("Admission queue opened for event {} at {} per second", eventId, admitPerSecond);
+    }
+
+    /**
+     * Stop queueing bookings of an event; waiting and admitted tokens are dropped
+     */
+    public void closeQueue(Long eventId) {
+        store.close(eventId);
+        credits.remove(eventId);
+        lastTicks.remove(eventId);
+        logger.info("Admission queue closed for event {}", eventId);
+    }
+
+    /**
+     * Join the queue of an event; joining again returns the user's existing place
+     */
+    public QueueStatusResponse join(Long eventId, Long userId) {
+        Integer rate = store.admitRate(eventId).orElse(null);
+        if (rate == null) {
+            return noQueue(eventId);
+        }
+        AdmissionQueueStore.Entry entry = store.join(eventId, userId, UUID.randomUUID().toString());
+        return toResponse(entry, rate);
+    }
+
+    /**
+     * Current place of a token in its queue
+     * @throws ResourceNotFoundException if the token is unknown, expired or belongs to someone else
+     */
+    public QueueStatusResponse getStatus(Long eventId, String token, Long userId) {
+        Integer rate = store.admitRate(eventId).orElse(null);
+        if (rate == null) {
+            return noQueue(eventId);
+        }
+        AdmissionQueueStore.Entry entry = findEntry(eventId, token, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Queue token not found or expired, please join again"));
+        return toResponse(entry, rate);
+    }
+
+    /**
+     * Use up the admission of a booking before the booking runs. The token is taken out of the queue in one
+     * step, so the same token sent twice at once lets only one booking through.
+     * @return The admission used, to hand back with restoreAdmission if the booking fails;
+     *         null if the event has no open queue
+     * @throws AdmissionRequiredException if the event's queue is open and the token has not been admitted
+     */
+    public AdmissionQueueStore.Entry consumeAdmission(Long eventId, Long userId, String token) {
+        if (store.admitRate(eventId).isEmpty()) {
+            return null;
+        }
+        Optional<AdmissionQueueStore.Entry> entry = token == null ? Optional.empty() : store.consume(token, eventId, userId);
+        if (entry.isEmpty() || isExpired(entry.get())) {
+            throw new AdmissionRequiredException("Tickets for this event are sold through the queue, please wait for your turn");
+        }
+        return entry.get();
+    }
+
+    /**
+     * Give an admission back after its booking failed, so the user can try again while the pass lasts
+     */
+    public void restoreAdmission(AdmissionQueueStore.Entry admission) {
+        if (admission != null && !isExpired(admission)) {
+            store.restore(admission);
+        }
+    }
+
+    /**
+     * Admit waiting users of every open queue at its rate and drop passes that were not used in time
+     */
+    @Scheduled(fixedDelayString = "${onvent.admission.tick-ms:1000}")
+    public void admitWaiting() {
+        Instant now = clock.instant();
+        int expired = store.expireAdmitted(now.minus(passTtl));
+        if (expired > 0) {
+            logger.debug("Expired {} unused admissions", expired);
+        }
+        for (Map.Entry<Long, Integer> queue : store.openQueues().entrySet()) {
+            Long eventId = queue.getKey();
+            int rate = queue.getValue();
+            Instant lastTick = lastTicks.put(eventId, now);
+            if (lastTick == null) {
+                continue;
+            }
+            // At most one second's worth at once, so a late tick does not release a burst
+            double credit = Math.min(rate, credits.getOrDefault(eventId, 0.0)
+                    + rate * Duration.between(lastTick, now).toNanos() / 1e9);
+            int admit = (int) credit;
+            if (admit > 0) {
+                store.admit(eventId, admit, now);
+            }
+            credits.put(eventId, credit - admit);
+        }
+    }
+
+    private Optional<AdmissionQueueStore.Entry> findEntry(Long eventId, String token, Long userId) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        return store.find(token)
+                .filter(entry -> entry.eventId().equals(eventId) && entry.userId().equals(userId));
+    }
+
+    private boolean isExpired(AdmissionQueueStore.Entry entry) {
+        return !entry.admittedAt().plus(passTtl).isAfter(clock.instant());
+    }
+
+    private QueueStatusResponse noQueue(Long eventId) {
+        QueueStatusResponse response = new QueueStatusResponse();
+        response.setEventId(eventId);
+        response.setStatus(QueueStatus.NO_QUEUE.name());
+        return response;
+    }
+
+    private QueueStatusResponse toResponse(AdmissionQueueStore.Entry entry, int rate) {
+        QueueStatusResponse response = new QueueStatusResponse();
+        response.setEventId(entry.eventId());
+        response.setToken(entry.token());
+        if (entry.isAdmitted()) {
+            response.setStatus(QueueStatus.ADMITTED.name());
+            response.setAdmittedUntil(LocalDateTime.ofInstant(entry.admittedAt().plus(passTtl), ZoneId.systemDefault()));
+            return response;
+        }
+        long position = entry.sequence() - store.admittedThrough(entry.eventId());
+        long waitSeconds = (position + rate - 1) / rate;
+        response.setStatus(QueueStatus.WAITING.name());
+        response.setPosition(position);
+        response.setEstimatedWaitSeconds(waitSeconds);
+        // Poll more often as the turn comes closer
+        response.setPollAfterSeconds((int) Math.max(1, Math.min(10, waitSeconds / 2)));
+        return response;
+    }
+}
@@ -0,0 +1,103 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Timers and outcome counters of the booking pipeline.
+ *
+ * booking.stage{stage} times each step of a booking, booking.duration{outcome} the whole booking and
+ * booking.outcome{outcome} counts how bookings end. All meters are registered up front, so every
+ * series exists at zero before the first booking. A booking that passes every stage is recorded when its
+ * transaction completes, as a success only if it commits and with the commit included in its duration.
+ * Percentile histograms and SLO buckets are not fixed
+ * here but configured with management.metrics.distribution.* for the "booking" prefix.
+ */
+@Component
+public class BookingMetrics {
+
+    public enum Stage {
+        USER_LOOKUP, EVENT_LOOKUP, TICKET_TYPE, SEAT_LEDGER, SEAT_CLAIM, TICKET_INSERT, NOTIFICATION
+    }
+
+    public enum Outcome {
+        SUCCESS, INSUFFICIENT_SEATS, PAST_EVENT, INVALID_TICKET_TYPE, INVALID_REQUEST, NOT_FOUND, FAILED
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Timer> durationTimers = new EnumMap<>(Outcome.class);
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("booking.stage")
+                    .description("Time spent in one stage of a booking")
+                    .tag("stage", tagValue(stage))
+                    .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            durationTimers.put(outcome, Timer.builder("booking.duration")
+                    .description("Time from a booking request to its outcome")
+                    .tag("outcome", tagValue(outcome))
+                    .register(meterRegistry));
+            outcomeCounters.put(outcome, Counter.builder("booking.outcome")
+                    .description("Bookings by outcome")
+                    .tag("outcome", tagValue(outcome))
+                    .register(meterRegistry));
+        }
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Run one stage of a booking and record its time, also when it fails
+     */
+    public <T> T time(Stage stage, Supplier<T> step) {
+        return stageTimers.get(stage).record(step);
+    }
+
+    public void time(Stage stage, Runnable step) {
+        stageTimers.get(stage).record(step);
+    }
+
+    /**
+     * Record how a booking started with {@link #start()} ended
+     */
+    public void record(Timer.Sample sample, Outcome outcome) {
+        sample.stop(durationTimers.get(outcome));
+        outcomeCounters.get(outcome).increment();
+    }
+
+    /**
+     * Record a booking that passed every stage once the current transaction completes:
+     * a success if it commits, a failure if the commit fails or the transaction is rolled back later
+     */
+    public void recordOnCompletion(Timer.Sample sample) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(sample, Outcome.SUCCESS);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                record(sample, status == STATUS_COMMITTED ? Outcome.SUCCESS : Outcome.FAILED);
+            }
+        });
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase().replace('_', '-');
+    }
+}
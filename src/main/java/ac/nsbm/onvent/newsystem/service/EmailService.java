@@ -4,12 +4,18 @@ import ac.nsbm.onvent.newsystem.dto.BookingResponse;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class EmailService {
 
@@ -25,16 +31,7 @@ public class EmailService {
      */
     public void sendBookingConfirmation(BookingResponse bookingResponse, String userEmail) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-            helper.setTo(userEmail);
-            helper.setSubject("Booking Confirmation - " + bookingResponse.getEventTitle());
-
-            String htmlContent = buildBookingConfirmationEmail(bookingResponse);
-            helper.setText(htmlContent, true);
-
-            mailSender.send(message);
+            mailSender.send(createBookingConfirmation(bookingResponse, userEmail));
             logger.info("Booking confirmation email sent successfully to {}", userEmail);
         } catch (MessagingException e) {
             logger.error("Failed to send booking confirmation email to {}: {}", userEmail, e.getMessage());
@@ -43,6 +40,50 @@ public class EmailService {
         }
     }
 
+    /**
+     * Build the booking confirmation message without sending it
+     * @param bookingResponse The booking details
+     * @param userEmail The email address of the user
+     * @return The message, ready to be sent
+     */
+    public MimeMessage createBookingConfirmation(BookingResponse bookingResponse, String userEmail) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+
+        helper.setTo(userEmail);
+        helper.setSubject("Booking Confirmation - " + bookingResponse.getEventTitle());
+
+        String htmlContent = buildBookingConfirmationEmail(bookingResponse);
+        helper.setText(htmlContent, true);
+
+        return message;
+    }
+
+    /**
+     * Send several messages over a single SMTP connection
+     * @param messages The messages to send
+     * @return The messages that could not be sent, with the reason; empty if all were sent
+     */
+    public Map<MimeMessage, Exception> sendAll(List<MimeMessage> messages) {
+        Map<MimeMessage, Exception> failures = new HashMap<>();
+        if (messages.isEmpty()) {
+            return failures;
+        }
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, cause) -> failures.put((MimeMessage) message, cause));
+            if (failures.isEmpty()) {
+                // Connection level failure: nothing was sent
+                messages.forEach(message -> failures.put(message, e));
+            }
+        } catch (MailException e) {
+            messages.forEach(message -> failures.put(message, e));
+        }
+        logger.info("Sent {} of {} emails", messages.size() - failures.size(), messages.size());
+        return failures;
+    }
+
     /**
      * Build HTML content for booking confirmation email
      * @param booking The booking details
@@ -70,9 +111,13 @@ public class EmailService {
         
         html.append("<div style='background-color: #e8f4fc; padding: 20px; border-radius: 5px; margin-bottom: 20px;'>");
         html.append("<h3 style='color: #2c3e50; margin-top: 0;'>Booking Details</h3>");
-        html.append("<p><strong>Booking Reference:</strong> ").append(booking.getTicketCode()).append("</p>");
-        html.append("<p><strong>Number of Tickets:</strong> 1</p>");
-        html.append("<p><strong>Total Price:</strong> $").append(String.format("%.2f", booking.getEventPrice())).append("</p>");
+        int numberOfTickets = booking.getNumberOfTickets() != null ? booking.getNumberOfTickets() : 1;
+        List<String> ticketCodes = booking.getTicketCodes() != null ? booking.getTicketCodes() : List.of(booking.getTicketCode());
+        html.append("<p><strong>Booking Reference:</strong> ").append(String.join(", ", ticketCodes)).append("</p>");
+        html.append("<p><strong>Number of Tickets:</strong> ").append(numberOfTickets).append("</p>");
+        // Notifications queued before the total was recorded fall back to the event price
+        double totalPrice = booking.getTotalPrice() != null ? booking.getTotalPrice() : booking.getEventPrice() * numberOfTickets;
+        html.append("<p><strong>Total Price:</strong> $").append(String.format("%.2f", totalPrice)).append("</p>");
         html.append("<p><strong>Booking Status:</strong> ").append(booking.getStatus()).append("</p>");
         html.append("</div>");
         
@@ -1,13 +1,21 @@
 package ac.nsbm.onvent.newsystem.service;
 
+import ac.nsbm.onvent.newsystem.config.CacheConfig;
+import ac.nsbm.onvent.newsystem.dto.EventCursorPage;
 import ac.nsbm.onvent.newsystem.dto.EventDTO;
 import ac.nsbm.onvent.newsystem.entity.Event;
 import ac.nsbm.onvent.newsystem.entity.User;
 import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.exception.ResourceNotFoundException;
 import ac.nsbm.onvent.newsystem.repository.EventRepository;
 import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import ac.nsbm.onvent.newsystem.repository.custom.EventCursor;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageImpl;
@@ -17,7 +25,9 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class EventService {
@@ -28,10 +38,28 @@ private EventRepository eventRepository;
     @Autowired
     private UserRepository userRepository;
 
-    public List<EventDTO> getAllEvents() {
-        return eventRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Autowired
+    private PdfService pdfService;
+
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+
+    /**
+     * Get one page of the event catalog, projected with the organizer name in a single query
+     */
+    @Cacheable(cacheNames = CacheConfig.EVENT_CATALOG, key = "#pageable")
+    public Page<EventDTO> getEvents(Pageable pageable) {
+        return eventRepository.findEventSummaries(pageable);
+    }
+
+    /**
+     * Pass every event to the consumer in (date, id) order, reading them through a database cursor
+     */
+    @Transactional
+    public void streamEvents(Consumer<EventDTO> consumer) {
+        try (Stream<EventDTO> events = eventRepository.streamEventSummaries()) {
+            events.forEach(consumer);
+        }
     }
 
     public Page<EventDTO> searchEvents(String title, String category, LocalDateTime date, Pageable pageable) {
@@ -39,13 +67,47 @@ private EventRepository eventRepository;
         return events.map(this::convertToDTO);
     }
 
+    /**
+     * Search events a page at a time using a cursor on (date, id) instead of an offset.
+     * One extra row is read to tell whether another page follows; the total is only counted on request.
+     * @param cursor Token from the previous page's nextCursor, or null for the first page
+     * @throws IllegalArgumentException if the cursor is not a valid token
+     */
+    public EventCursorPage searchEventsAfter(String title, String category, LocalDateTime date, String cursor, int size, boolean includeTotal) {
+        EventCursor after = cursor != null && !cursor.isEmpty() ? EventCursor.decode(cursor) : null;
+        
+        List<Event> events = eventRepository.findEventsWithFiltersAfter(title, category, date, after, size + 1);
+        boolean hasNext = events.size() > size;
+        if (hasNext) {
+            events = events.subList(0, size);
+        }
+        
+        String nextCursor = null;
+        if (hasNext) {
+            Event last = events.get(events.size() - 1);
+            nextCursor = new EventCursor(last.getDate(), last.getId()).encode();
+        }
+        Long total = includeTotal ? eventRepository.countEventsWithFilters(title, category, date) : null;
+        
+        List<EventDTO> content = events.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new EventCursorPage(content, nextCursor, hasNext, total);
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the event does not exist
+     */
+    @Cacheable(cacheNames = CacheConfig.EVENTS, key = "#id")
     public EventDTO getEventById(Long id) {
-        Event event = eventRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
+        Event event = eventRepository.findWithOrganizerById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found with id: " + id));
         return convertToDTO(event);
     }
 
     @Transactional
+    @Caching(put = @CachePut(cacheNames = CacheConfig.EVENTS, key = "#result.id"),
+             evict = @CacheEvict(cacheNames = CacheConfig.EVENT_CATALOG, allEntries = true))
     public EventDTO createEvent(EventDTO eventDTO, String organizerUsername) {
         // Fetch the organizer user
         User organizer = userRepository.findByUsername(organizerUsername)
@@ -68,20 +130,16 @@ private EventRepository eventRepository;
     }
 
     @Transactional
+    @Caching(put = @CachePut(cacheNames = CacheConfig.EVENTS, key = "#id"),
+             evict = @CacheEvict(cacheNames = CacheConfig.EVENT_CATALOG, allEntries = true))
     public EventDTO updateEvent(Long id, EventDTO eventDTO, String organizerUsername) {
         Event existingEvent = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
 
         // Check if the current user is the organizer of the event or an admin
         if (!existingEvent.getOrganizer().getUsername().equals(organizerUsername)) {
-            // Get current user to check if they are admin
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String currentUsername = authentication.getName();
-            User currentUser = userRepository.findByUsername(currentUsername)
-                    .orElseThrow(() -> new RuntimeException("Current user not found"));
-            
             // Allow admin to update any event
-            if (currentUser.getRole() != Role.ADMIN) {
+            if (!isCurrentUserAdmin()) {
                 throw new RuntimeException("You are not authorized to update this event");
             }
         }
@@ -97,29 +155,38 @@ private EventRepository eventRepository;
         existingEvent.setImage(eventDTO.getImageUrl());
 
         Event updatedEvent = eventRepository.save(existingEvent);
+        // Tickets are rendered from the new details from now on; the old layout is not needed any more
+        pdfService.evictTemplate(id);
         return convertToDTO(updatedEvent);
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EVENTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.EVENT_CATALOG, allEntries = true)
+    })
     public void deleteEvent(Long id, String organizerUsername) {
         Event existingEvent = eventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Event not found with id: " + id));
 
         // Check if the current user is the organizer of the event or an admin
         if (!existingEvent.getOrganizer().getUsername().equals(organizerUsername)) {
-            // Get current user to check if they are admin
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String currentUsername = authentication.getName();
-            User currentUser = userRepository.findByUsername(currentUsername)
-                    .orElseThrow(() -> new RuntimeException("Current user not found"));
-            
             // Allow admin to delete any event
-            if (currentUser.getRole() != Role.ADMIN) {
+            if (!isCurrentUserAdmin()) {
                 throw new RuntimeException("You are not authorized to delete this event");
             }
         }
 
         eventRepository.deleteById(id);
+        pdfService.evictTemplate(id);
+        seatInventoryService.forgetEvent(id);
+    }
+
+    // The role comes with the authentication, so the current user is not loaded again
+    private boolean isCurrentUserAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> ("ROLE_" + Role.ADMIN.name()).equals(authority.getAuthority()));
     }
 
     private EventDTO convertToDTO(Event event) {
@@ -0,0 +1,236 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.entity.NotificationOutbox;
+import ac.nsbm.onvent.newsystem.repository.NotificationOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for booking notifications.
+ *
+ * Bookings write an outbox row in their own transaction. After the transaction commits a worker from
+ * the bounded notification pool claims due rows, sends them in batches over one SMTP connection and
+ * records the outcome. Failed sends are retried with exponential backoff until the attempts run out.
+ */
+@Service
+public class NotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor notificationExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration staleClaimTimeout;
+
+    public NotificationService(NotificationOutboxRepository outboxRepository,
+                               EmailService emailService,
+                               ObjectMapper objectMapper,
+                               @Qualifier("notificationExecutor") ThreadPoolTaskExecutor notificationExecutor,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${onvent.notifications.batch-size:20}") int batchSize,
+                               @Value("${onvent.notifications.max-attempts:6}") int maxAttempts,
+                               @Value("${onvent.notifications.initial-backoff-ms:30000}") long initialBackoffMs,
+                               @Value("${onvent.notifications.max-backoff-ms:3600000}") long maxBackoffMs,
+                               @Value("${onvent.notifications.stale-claim-timeout-ms:300000}") long staleClaimTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.notificationExecutor = notificationExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofMillis(initialBackoffMs);
+        this.maxBackoff = Duration.ofMillis(maxBackoffMs);
+        this.staleClaimTimeout = Duration.ofMillis(staleClaimTimeoutMs);
+    }
+
+    /**
+     * Queue a booking confirmation in the current transaction.
+     * Nothing is sent if the booking rolls back; delivery starts once it commits.
+     * @param booking The booking details
+     * @param recipient The email address of the user
+     */
+    public void enqueueBookingConfirmation(BookingResponse booking, String recipient) {
+        LocalDateTime now = LocalDateTime.now();
+        NotificationOutbox notification = NotificationOutbox.builder()
+                .type(NotificationOutbox.NotificationType.BOOKING_CONFIRMATION.name())
+                .recipient(recipient)
+                .payload(toJson(booking))
+                .status(NotificationOutbox.OutboxStatus.PENDING.name())
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+        outboxRepository.save(notification);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    triggerDrain();
+                }
+            });
+        } else {
+            triggerDrain();
+        }
+    }
+
+    /**
+     * Ask a worker to drain the outbox; ignored when all workers are already busy
+     */
+    public void triggerDrain() {
+        notificationExecutor.execute(this::drain);
+    }
+
+    /**
+     * Safety net for retries and for drain requests dropped while the workers were busy
+     */
+    @Scheduled(fixedDelayString = "${onvent.notifications.poll-interval-ms:10000}",
+               initialDelayString = "${onvent.notifications.poll-interval-ms:10000}")
+    public void poll() {
+        Integer released = transactionTemplate.execute(status ->
+                outboxRepository.releaseStale(LocalDateTime.now().minus(staleClaimTimeout)));
+        if (released != null && released > 0) {
+            logger.warn("Re-queued {} notifications left in SENDING state", released);
+        }
+        triggerDrain();
+    }
+
+    /**
+     * Send due notifications batch by batch until none are left
+     */
+    public void drain() {
+        List<NotificationOutbox> batch;
+        while (!(batch = claimBatch()).isEmpty()) {
+            sendBatch(batch);
+        }
+    }
+
+    /**
+     * Claim the next batch of due notifications: one locking read and one update, whatever the batch size
+     */
+    List<NotificationOutbox> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            // Stored at microsecond precision, so it can be compared with the lockedAt read back
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            List<NotificationOutbox> due = outboxRepository.lockDue(now, PageRequest.of(0, batchSize));
+            if (due.isEmpty()) {
+                return due;
+            }
+            List<Long> ids = due.stream().map(NotificationOutbox::getId).toList();
+            if (outboxRepository.claimAll(ids, now) < ids.size()) {
+                // Without SKIP LOCKED support a locked read can return rows another worker just claimed; keep ours
+                return outboxRepository.findAllById(ids).stream()
+                        .filter(notification -> now.equals(notification.getLockedAt()))
+                        .toList();
+            }
+            // The update cleared the persistence context; bring the detached rows in line with it
+            for (NotificationOutbox notification : due) {
+                notification.setStatus(NotificationOutbox.OutboxStatus.SENDING.name());
+                notification.setLockedAt(now);
+            }
+            return due;
+        });
+    }
+
+    private void sendBatch(List<NotificationOutbox> batch) {
+        Map<MimeMessage, NotificationOutbox> messages = new LinkedHashMap<>();
+        Map<Long, Exception> failures = new LinkedHashMap<>();
+
+        for (NotificationOutbox notification : batch) {
+            try {
+                BookingResponse booking = objectMapper.readValue(notification.getPayload(), BookingResponse.class);
+                messages.put(emailService.createBookingConfirmation(booking, notification.getRecipient()), notification);
+            } catch (Exception e) {
+                failures.put(notification.getId(), e);
+            }
+        }
+
+        emailService.sendAll(new ArrayList<>(messages.keySet()))
+                .forEach((message, cause) -> failures.put(messages.get(message).getId(), cause));
+
+        // Sent notifications are marked in one update; failed ones are read back in one query to schedule their retry
+        List<Long> sent = batch.stream().map(NotificationOutbox::getId).filter(id -> !failures.containsKey(id)).toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!sent.isEmpty()) {
+                outboxRepository.markSent(sent, now);
+            }
+            if (!failures.isEmpty()) {
+                for (NotificationOutbox notification : outboxRepository.findAllById(failures.keySet())) {
+                    markFailed(notification, failures.get(notification.getId()), now);
+                }
+            }
+        });
+    }
+
+    private void markFailed(NotificationOutbox notification, Exception failure, LocalDateTime now) {
+        int attempts = notification.getAttempts() + 1;
+        notification.setAttempts(attempts);
+        notification.setLockedAt(null);
+        notification.setLastError(truncate(failure.getMessage()));
+
+        if (attempts >= maxAttempts) {
+            notification.setStatus(NotificationOutbox.OutboxStatus.FAILED.name());
+            logger.error("Giving up on notification {} to {} after {} attempts: {}",
+                    notification.getId(), notification.getRecipient(), attempts, failure.getMessage());
+        } else {
+            notification.setStatus(NotificationOutbox.OutboxStatus.PENDING.name());
+            notification.setNextAttemptAt(now.plus(backoff(attempts)));
+            logger.warn("Notification {} to {} failed (attempt {}), retrying at {}: {}",
+                    notification.getId(), notification.getRecipient(), attempts, notification.getNextAttemptAt(), failure.getMessage());
+        }
+    }
+
+    /**
+     * Exponential backoff: initial, 2x initial, 4x initial, ... capped at the maximum
+     */
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private String toJson(BookingResponse booking) {
+        try {
+            return objectMapper.writeValueAsString(booking);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize booking notification", e);
+        }
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -2,24 +2,67 @@ package ac.nsbm.onvent.newsystem.service;
 
 import ac.nsbm.onvent.newsystem.dto.BookingResponse;
 import com.itextpdf.barcodes.BarcodeQRCode;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Div;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
-import com.itextpdf.io.image.ImageData;
-import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.layout.element.Image;
+import com.itextpdf.layout.renderer.CellRenderer;
+import com.itextpdf.layout.renderer.DivRenderer;
+import com.itextpdf.layout.renderer.DrawContext;
+import com.itextpdf.layout.renderer.IRenderer;
 import org.springframework.stereotype.Service;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class PdfService {
 
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int MAX_CACHED_TEMPLATES = 64;
+
+    private static final String FIELD_REFERENCE = "reference";
+    private static final String FIELD_BOOKED_BY = "bookedBy";
+    private static final String FIELD_BOOKING_DATE = "bookingDate";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_QR_CODE = "qrCode";
+
+    // Rendered event layouts, least recently used evicted first
+    private final Map<TemplateKey, TicketTemplate> templates = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<TemplateKey, TicketTemplate> eldest) {
+                    return size() > MAX_CACHED_TEMPLATES;
+                }
+            });
+
     /**
      * Generate PDF ticket for a booking
      * @param booking The booking details
@@ -108,6 +151,257 @@ public class PdfService {
         }
     }
 
+    /**
+     * Generate PDF ticket by stamping the booking fields onto the event's pre-rendered template.
+     * The static layout is rendered once per event; each ticket only adds its own text and QR code.
+     * @param booking The booking details
+     * @return Byte array containing the PDF content
+     */
+    public byte[] generateTicketPdfFromTemplate(BookingResponse booking) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeTicketPdfFromTemplate(booking, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Stamp a ticket from the event's template and write it to the given stream.
+     * The stream is not closed.
+     * @param booking The booking details
+     * @param out Where the PDF is written
+     */
+    public void writeTicketPdfFromTemplate(BookingResponse booking, OutputStream out) {
+        TicketTemplate template = getTemplate(booking);
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(template.content)), writer)) {
+            PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+            stampFields(pdf, new PdfCanvas(pdf.getFirstPage()), font, template, booking);
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating PDF ticket: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write every booking as one page of a single PDF document.
+     * Each event template is copied into the document once and reused by all of its pages,
+     * and pages are flushed to the stream as soon as they are stamped. The stream is not closed.
+     * @param bookings The bookings to write, read one at a time
+     * @param out Where the PDF is written
+     * @return Number of tickets written
+     */
+    public int writeTicketsPdf(Iterator<BookingResponse> bookings, OutputStream out) {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        int written = 0;
+        try (PdfDocument pdf = new PdfDocument(writer)) {
+            PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+            Map<TicketTemplate, PdfFormXObject> pageTemplates = new IdentityHashMap<>();
+
+            while (bookings.hasNext()) {
+                BookingResponse booking = bookings.next();
+                TicketTemplate template = getTemplate(booking);
+                PdfFormXObject pageTemplate = pageTemplates.computeIfAbsent(template, t -> copyAsFormXObject(t, pdf));
+
+                PdfPage page = pdf.addNewPage(new PageSize(pageTemplate.getBBox().toRectangle()));
+                PdfCanvas pdfCanvas = new PdfCanvas(page);
+                pdfCanvas.addXObjectAt(pageTemplate, 0, 0);
+                stampFields(pdf, pdfCanvas, font, template, booking);
+                page.flush();
+                written++;
+            }
+
+            if (written == 0) {
+                // A PDF needs at least one page
+                pdf.addNewPage();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating PDF tickets: " + e.getMessage(), e);
+        }
+        return written;
+    }
+
+    /**
+     * Write every booking as its own PDF entry of a ZIP archive, named after the ticket code.
+     * The stream is not closed.
+     * @param bookings The bookings to write, read one at a time
+     * @param out Where the ZIP is written
+     * @return Number of tickets written
+     */
+    public int writeTicketsZip(Iterator<BookingResponse> bookings, OutputStream out) {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        int written = 0;
+        try {
+            while (bookings.hasNext()) {
+                BookingResponse booking = bookings.next();
+                zip.putNextEntry(new ZipEntry(booking.getTicketCode() + ".pdf"));
+                writeTicketPdfFromTemplate(booking, zip);
+                zip.closeEntry();
+                written++;
+            }
+            zip.finish();
+        } catch (IOException e) {
+            throw new RuntimeException("Error generating ticket archive: " + e.getMessage(), e);
+        }
+        return written;
+    }
+
+    /**
+     * Drop the cached template of an event, e.g. after its details changed
+     */
+    public void evictTemplate(Long eventId) {
+        synchronized (templates) {
+            templates.keySet().removeIf(key -> key.eventId().equals(eventId));
+        }
+    }
+
+    // Number of layouts cached for an event, for tests
+    int cachedTemplateCount(Long eventId) {
+        synchronized (templates) {
+            return (int) templates.keySet().stream().filter(key -> key.eventId().equals(eventId)).count();
+        }
+    }
+
+    private TicketTemplate getTemplate(BookingResponse booking) {
+        TemplateKey key = new TemplateKey(booking.getEventId(), booking.getEventTitle(), booking.getEventLocation(), booking.getEventDate());
+        TicketTemplate template = templates.get(key);
+        if (template == null) {
+            // Rendering twice under a race is harmless, so render outside the lock
+            template = renderTemplate(booking);
+            templates.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Render the same layout as generateTicketPdf with the per-ticket fields left blank,
+     * recording where each blank field ends up on the page.
+     */
+    private TicketTemplate renderTemplate(BookingResponse booking) {
+        Map<String, Rectangle> fields = new HashMap<>();
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            PdfDocument pdf = new PdfDocument(new PdfWriter(baos));
+            Document document = new Document(pdf);
+
+            document.add(new Paragraph("EVENT TICKET")
+                    .setFontSize(24)
+                    .setBold()
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(20));
+
+            Table eventTable = new Table(UnitValue.createPercentArray(new float[]{1, 2}))
+                    .setWidth(UnitValue.createPercentValue(100))
+                    .setMarginBottom(20);
+
+            eventTable.addHeaderCell(createHeaderCell("Event"));
+            eventTable.addHeaderCell(createHeaderCell(booking.getEventTitle()));
+
+            eventTable.addCell(createCell("Date"));
+            eventTable.addCell(createCell(booking.getEventDate().format(DATE_FORMAT)));
+
+            eventTable.addCell(createCell("Venue"));
+            eventTable.addCell(createCell(booking.getEventLocation()));
+
+            eventTable.addCell(createCell("Organized by"));
+            eventTable.addCell(createCell("Onvent"));
+
+            document.add(eventTable);
+
+            Table bookingTable = new Table(UnitValue.createPercentArray(new float[]{1, 2}))
+                    .setWidth(UnitValue.createPercentValue(100))
+                    .setMarginBottom(20);
+
+            bookingTable.addHeaderCell(createHeaderCell("Booking Information"));
+            bookingTable.addHeaderCell(createHeaderCell(""));
+
+            bookingTable.addCell(createCell("Reference Number"));
+            bookingTable.addCell(createFieldCell(FIELD_REFERENCE, fields));
+
+            bookingTable.addCell(createCell("Booked By"));
+            bookingTable.addCell(createFieldCell(FIELD_BOOKED_BY, fields));
+
+            bookingTable.addCell(createCell("Booking Date"));
+            bookingTable.addCell(createFieldCell(FIELD_BOOKING_DATE, fields));
+
+            bookingTable.addCell(createCell("Status"));
+            bookingTable.addCell(createFieldCell(FIELD_STATUS, fields));
+
+            document.add(bookingTable);
+
+            document.add(new Paragraph("Verification QR Code")
+                    .setFontSize(14)
+                    .setBold()
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginBottom(10));
+
+            // Reserve the QR code area; the code itself is stamped per ticket
+            Div qrCodeArea = new Div()
+                    .setWidth(150)
+                    .setHeight(150);
+            qrCodeArea.setNextRenderer(new FieldDivRenderer(qrCodeArea, FIELD_QR_CODE, fields));
+            document.add(qrCodeArea);
+
+            document.add(new Paragraph("Please present this ticket at the entrance. Keep this ticket safe as duplicates will not be issued.")
+                    .setFontSize(10)
+                    .setTextAlignment(TextAlignment.CENTER)
+                    .setMarginTop(20)
+                    .setFontColor(com.itextpdf.kernel.colors.ColorConstants.GRAY));
+
+            document.close();
+            return new TicketTemplate(baos.toByteArray(), fields);
+        } catch (IOException e) {
+            throw new RuntimeException("Error rendering PDF ticket template: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stamp the booking's own text and QR code into the template's field areas
+     */
+    private void stampFields(PdfDocument pdf, PdfCanvas pdfCanvas, PdfFont font, TicketTemplate template, BookingResponse booking) {
+        stampText(pdfCanvas, font, template.fields.get(FIELD_REFERENCE), booking.getTicketCode());
+        stampText(pdfCanvas, font, template.fields.get(FIELD_BOOKED_BY), booking.getUserName());
+        stampText(pdfCanvas, font, template.fields.get(FIELD_BOOKING_DATE), booking.getPurchaseDate().format(DATE_FORMAT));
+        stampText(pdfCanvas, font, template.fields.get(FIELD_STATUS), booking.getStatus());
+
+        PdfFormXObject qrCode = new BarcodeQRCode(booking.getTicketCode()).createFormXObject(pdf);
+        pdfCanvas.addXObjectFittedIntoRectangle(qrCode, template.fields.get(FIELD_QR_CODE));
+    }
+
+    /**
+     * Copy a template page into another document as a reusable form
+     */
+    private PdfFormXObject copyAsFormXObject(TicketTemplate template, PdfDocument pdf) {
+        try (PdfDocument source = new PdfDocument(new PdfReader(new ByteArrayInputStream(template.content)))) {
+            return source.getFirstPage().copyAsFormXObject(pdf);
+        } catch (IOException e) {
+            throw new RuntimeException("Error copying PDF ticket template: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write a value into a field area, shrinking the font if it would not fit on one line
+     */
+    private void stampText(PdfCanvas pdfCanvas, PdfFont font, Rectangle area, String value) {
+        String text = value != null ? value : "";
+        float fontSize = 12;
+        float width = font.getWidth(text, fontSize);
+        if (width > area.getWidth()) {
+            fontSize = Math.max(6, fontSize * area.getWidth() / width);
+        }
+        try (Canvas canvas = new Canvas(pdfCanvas, area)) {
+            canvas.add(new Paragraph(text).setFont(font).setFontSize(fontSize).setMargin(0));
+        }
+    }
+
+    /**
+     * Create an empty cell that records its position on the page under the given field name
+     */
+    private Cell createFieldCell(String field, Map<String, Rectangle> fields) {
+        // Empty paragraph as tall as one line of the default 12pt font with its 1.35 leading
+        Cell cell = new Cell().add(new Paragraph().setMinHeight(12 * 1.35f));
+        cell.setNextRenderer(new FieldCellRenderer(cell, field, fields));
+        return cell;
+    }
+
     /**
      * Create a header cell with styling
      * @param content The cell content
@@ -128,4 +422,61 @@ public class PdfService {
     private Cell createCell(String content) {
         return new Cell().add(new Paragraph(content));
     }
-}
\ No newline at end of file
+
+    private record TemplateKey(Long eventId, String title, String location, LocalDateTime date) {
+    }
+
+    private static final class TicketTemplate {
+        private final byte[] content;
+        private final Map<String, Rectangle> fields;
+
+        private TicketTemplate(byte[] content, Map<String, Rectangle> fields) {
+            this.content = content;
+            this.fields = fields;
+        }
+    }
+
+    private static final class FieldCellRenderer extends CellRenderer {
+        private final String field;
+        private final Map<String, Rectangle> fields;
+
+        private FieldCellRenderer(Cell cell, String field, Map<String, Rectangle> fields) {
+            super(cell);
+            this.field = field;
+            this.fields = fields;
+        }
+
+        @Override
+        public void draw(DrawContext drawContext) {
+            super.draw(drawContext);
+            fields.put(field, getInnerAreaBBox());
+        }
+
+        @Override
+        public IRenderer getNextRenderer() {
+            return new FieldCellRenderer((Cell) modelElement, field, fields);
+        }
+    }
+
+    private static final class FieldDivRenderer extends DivRenderer {
+        private final String field;
+        private final Map<String, Rectangle> fields;
+
+        private FieldDivRenderer(Div div, String field, Map<String, Rectangle> fields) {
+            super(div);
+            this.field = field;
+            this.fields = fields;
+        }
+
+        @Override
+        public void draw(DrawContext drawContext) {
+            super.draw(drawContext);
+            fields.put(field, getOccupiedAreaBBox());
+        }
+
+        @Override
+        public IRenderer getNextRenderer() {
+            return new FieldDivRenderer((Div) modelElement, field, fields);
+        }
+    }
+}
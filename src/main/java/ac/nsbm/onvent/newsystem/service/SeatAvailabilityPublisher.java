@@ -0,0 +1,285 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.dto.AvailabilityResponse;
+import ac.nsbm.onvent.newsystem.dto.EventDTO;
+import ac.nsbm.onvent.newsystem.exception.ResourceNotFoundException;
+import ac.nsbm.onvent.newsystem.exception.ServiceBusyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Live seat availability pushed to open event pages over Server-Sent Events.
+ *
+ * Every event with subscribers has one channel. On each tick the publisher reads the event's counts from
+ * the seat ledger and the cached event, and only if they changed since the last push serializes one
+ * update and writes it to every subscriber. Bookings, cancellations, holds and expiries between two ticks
+ * are coalesced into that single update, and neither subscribers nor bookings cause database queries.
+ * Updates carry the full counts rather than a difference, so a client that missed one is never wrong.
+ *
+ * The tick itself never writes to a client: each stream keeps only the latest message not yet written,
+ * and a bounded worker pool writes it. A client that is still busy with one write when the next update
+ * comes simply skips to the newest counts, and a write that takes longer than the send timeout ends that
+ * stream, so slow clients cannot hold up the scheduler thread the other background jobs share.
+ */
+@Service
+public class SeatAvailabilityPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatAvailabilityPublisher.class);
+
+    private static final String EVENT_NAME = "availability";
+
+    private final SeatInventoryService seatInventoryService;
+    private final EventService eventService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor availabilityExecutor;
+    private final Duration streamTimeout;
+    private final long sendTimeoutNanos;
+    private final int maxSubscribers;
+    private final long heartbeatIntervalNanos;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private volatile long lastHeartbeat = System.nanoTime();
+
+    public SeatAvailabilityPublisher(SeatInventoryService seatInventoryService,
+                                     EventService eventService,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Qualifier("availabilityExecutor") ThreadPoolTaskExecutor availabilityExecutor,
+                                     @Value("${onvent.availability.stream-timeout:30m}") Duration streamTimeout,
+                                     @Value("${onvent.availability.send-timeout:5s}") Duration sendTimeout,
+                                     @Value("${onvent.availability.max-subscribers:10000}") int maxSubscribers,
+                                     @Value("${onvent.availability.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.seatInventoryService = seatInventoryService;
+        this.eventService = eventService;
+        this.objectMapper = objectMapper;
+        this.availabilityExecutor = availabilityExecutor;
+        this.streamTimeout = streamTimeout;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeatIntervalNanos = heartbeatInterval.toNanos();
+        Gauge.builder("availability.subscribers", subscribers, AtomicInteger::get)
+                .description("Open live availability streams")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a live availability stream for an event; the current counts are sent straight away
+     * @throws ResourceNotFoundException if the event does not exist
+     * @throws ServiceBusyException if this node already serves the maximum number of streams
+     */
+    public SseEmitter subscribe(Long eventId) {
+        AvailabilityResponse current = snapshot(eventService.getEventById(eventId));
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ServiceBusyException("Too many live availability streams, please refresh the page instead");
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        // Queued before the stream joins its channel, so the snapshot is written before any update
+        offer(subscriber, new Message(toJson(current)));
+        Channel channel = channels.compute(eventId, (id, existing) -> {
+            Channel target = existing != null ? existing : new Channel(current);
+            target.subscribers.add(subscriber);
+            return target;
+        });
+        AvailabilityResponse latest = channel.last;
+        if (!latest.equals(current)) {
+            // A tick moved the channel on while this stream was joining
+            offer(subscriber, new Message(toJson(latest)));
+        }
+        emitter.onCompletion(() -> unsubscribe(channel, subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitter.complete());
+        return emitter;
+    }
+
+    /**
+     * Queue changed counts of every event with subscribers, and a heartbeat comment now and then
+     * so idle streams are not closed by proxies
+     */
+    @Scheduled(fixedDelayString = "${onvent.availability.push-interval-ms:250}")
+    public void publish() {
+        long now = System.nanoTime();
+        boolean heartbeat = now - lastHeartbeat >= heartbeatIntervalNanos;
+        if (heartbeat) {
+            lastHeartbeat = now;
+        }
+        for (Map.Entry<Long, Channel> entry : channels.entrySet()) {
+            Channel channel = entry.getValue();
+            if (channel.subscribers.isEmpty()) {
+                channels.computeIfPresent(entry.getKey(), (id, existing) -> existing.subscribers.isEmpty() ? null : existing);
+                continue;
+            }
+            AvailabilityResponse update;
+            try {
+                update = snapshot(eventService.getEventById(entry.getKey()));
+            } catch (ResourceNotFoundException e) {
+                // The event was deleted: end its streams
+                channels.remove(entry.getKey());
+                channel.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+                continue;
+            } catch (RuntimeException e) {
+                // A failed lookup, such as a database timeout, skips this tick; the streams stay open
+                logger.warn("Could not read availability of event {}, skipping this update: {}", entry.getKey(), e.getMessage());
+                continue;
+            }
+            Message message = null;
+            if (!update.equals(channel.last)) {
+                channel.last = update;
+                message = new Message(toJson(update));
+            } else if (heartbeat) {
+                message = Message.HEARTBEAT;
+            }
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.isStuck(now, sendTimeoutNanos)) {
+                    subscriber.emitter.completeWithError(new TimeoutException("Availability update not written in time"));
+                    unsubscribe(channel, subscriber);
+                } else {
+                    offer(subscriber, message);
+                }
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    private AvailabilityResponse snapshot(EventDTO event) {
+        int bookedSeats = seatInventoryService.getBookedSeats(event.getId());
+        int heldSeats = seatInventoryService.getHeldSeats(event.getId());
+        int availableSeats = event.getSeats() - bookedSeats - heldSeats;
+        return new AvailabilityResponse(event.getId(), event.getTitle(), event.getSeats(),
+                bookedSeats, heldSeats, availableSeats, availableSeats > 0);
+    }
+
+    /**
+     * Make a message the next one to write to a subscriber and make sure a worker will write it.
+     * A heartbeat never replaces a pending update. With a null message only a write left over from a
+     * rejected task is retried.
+     */
+    private void offer(Subscriber subscriber, Message message) {
+        if (message == Message.HEARTBEAT) {
+            subscriber.next.compareAndSet(null, message);
+        } else if (message != null) {
+            subscriber.next.set(message);
+        }
+        if (subscriber.next.get() != null && subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                availabilityExecutor.execute(() -> drain(subscriber));
+            } catch (TaskRejectedException e) {
+                // Workers are saturated; the message stays queued for the next tick
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Message message = subscriber.next.getAndSet(null);
+            if (message == null) {
+                subscriber.scheduled.set(false);
+                // A message offered after the check above found this task still scheduled; write it now
+                if (subscriber.next.get() == null || !subscriber.scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            subscriber.sendingSince = System.nanoTime();
+            try {
+                write(subscriber.emitter, message);
+            } finally {
+                subscriber.sendingSince = Subscriber.IDLE;
+            }
+        }
+    }
+
+    private void write(SseEmitter emitter, Message message) {
+        try {
+            if (message == Message.HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                emitter.send(SseEmitter.event().name(EVENT_NAME).data(message.json(), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; completing the emitter unsubscribes it
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Channel channel, Subscriber subscriber) {
+        if (channel.subscribers.remove(subscriber)) {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    private String toJson(AvailabilityResponse availability) {
+        try {
+            return objectMapper.writeValueAsString(availability);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write availability update", e);
+        }
+    }
+
+    private static final class Channel {
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private volatile AvailabilityResponse last;
+
+        private Channel(AvailabilityResponse initial) {
+            this.last = initial;
+        }
+    }
+
+    /**
+     * One open stream: the latest message not written yet, whether a worker is writing to it,
+     * and since when the write in progress has been running
+     */
+    private static final class Subscriber {
+        private static final long IDLE = Long.MIN_VALUE;
+
+        private final SseEmitter emitter;
+        private final AtomicReference<Message> next = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long sendingSince = IDLE;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private boolean isStuck(long now, long timeoutNanos) {
+            long since = sendingSince;
+            return since != IDLE && now - since > timeoutNanos;
+        }
+    }
+
+    /**
+     * An availability update, or a heartbeat comment when json is null
+     */
+    private record Message(String json) {
+        private static final Message HEARTBEAT = new Message(null);
+    }
+}
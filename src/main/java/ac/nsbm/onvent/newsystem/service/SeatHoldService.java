@@ -0,0 +1,207 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.dto.SeatHoldResponse;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.TicketType;
+import ac.nsbm.onvent.newsystem.exception.InvalidBookingException;
+import ac.nsbm.onvent.newsystem.exception.ResourceNotFoundException;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketTypeRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-step booking: hold seats for a short time, then confirm the hold into tickets.
+ *
+ * A hold takes its seats in the seat ledger at once, so nobody else can book them while the user
+ * confirms, and needs no database write. Each hold's deadline sits in a DelayQueue; one sweeper thread
+ * sleeps until the earliest deadline and gives expired seats back, so expiry costs nothing while no hold
+ * is due and never polls the database. A user has at most one hold per event; a new one replaces it.
+ * Holds are kept in memory, like the ledger, and are lost on restart, which frees their seats.
+ */
+@Service
+public class SeatHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldService.class);
+
+    private final SeatInventoryService seatInventoryService;
+    private final TicketService ticketService;
+    private final EventRepository eventRepository;
+    private final TicketTypeRepository ticketTypeRepository;
+    private final Duration holdTtl;
+
+    private final Map<String, SeatHold> holds = new ConcurrentHashMap<>();
+    private final Map<String, String> holdIdsByUserAndEvent = new ConcurrentHashMap<>();
+    private final DelayQueue<HoldExpiry> expiries = new DelayQueue<>();
+    private volatile Thread sweeper;
+
+    public SeatHoldService(SeatInventoryService seatInventoryService,
+                           TicketService ticketService,
+                           EventRepository eventRepository,
+                           TicketTypeRepository ticketTypeRepository,
+                           @Value("${onvent.seat-holds.ttl:5m}") Duration holdTtl) {
+        this.seatInventoryService = seatInventoryService;
+        this.ticketService = ticketService;
+        this.eventRepository = eventRepository;
+        this.ticketTypeRepository = ticketTypeRepository;
+        this.holdTtl = holdTtl;
+    }
+
+    /**
+     * Hold seats for a user
+     * @param userId The user holding the seats
+     * @param request The event, optional ticket type and number of seats
+     * @return The hold, with the time it expires
+     * @throws ac.nsbm.onvent.newsystem.exception.InsufficientSeatsException if not enough seats are free
+     */
+    public SeatHoldResponse createHold(Long userId, BookingRequest request) {
+        int seats = request.getNumberOfTickets() != null ? request.getNumberOfTickets() : 1;
+        if (seats <= 0 || seats > TicketService.MAX_TICKETS_PER_BOOKING) {
+            throw new InvalidBookingException("A hold must be for 1 to " + TicketService.MAX_TICKETS_PER_BOOKING + " tickets");
+        }
+        Event event = eventRepository.findById(request.getEventId())
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found with ID: " + request.getEventId()));
+        if (event.getDate().isBefore(LocalDateTime.now())) {
+            throw new InvalidBookingException("Cannot book tickets for past events");
+        }
+        TicketType ticketType = null;
+        if (request.getTicketTypeId() != null) {
+            ticketType = ticketTypeRepository.findById(request.getTicketTypeId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Ticket type not found with ID: " + request.getTicketTypeId()));
+            if (!ticketType.getEvent().getId().equals(event.getId())) {
+                throw new InvalidBookingException("Invalid ticket type for this event");
+            }
+        }
+
+        int availableSeats = seatInventoryService.holdSeats(event, ticketType, seats);
+        SeatHold hold = new SeatHold(UUID.randomUUID().toString(), userId, event.getId(), request.getTicketTypeId(), seats,
+                LocalDateTime.now().plus(holdTtl), System.nanoTime() + holdTtl.toNanos());
+        track(hold);
+
+        String replaced = holdIdsByUserAndEvent.put(userKey(userId, event.getId()), hold.id());
+        if (replaced != null) {
+            release(replaced);
+        }
+        return new SeatHoldResponse(hold.id(), hold.eventId(), hold.ticketTypeId(), seats, hold.expiresAt(), availableSeats);
+    }
+
+    /**
+     * Book the held seats
+     * @throws ResourceNotFoundException if the hold does not exist, expired or belongs to someone else
+     */
+    public BookingResponse confirmHold(String holdId, Long userId) {
+        SeatHold hold = claim(holdId, userId);
+        BookingRequest request = new BookingRequest();
+        request.setUserId(userId);
+        request.setEventId(hold.eventId());
+        request.setTicketTypeId(hold.ticketTypeId());
+        request.setNumberOfTickets(hold.seats());
+        try {
+            return ticketService.bookHeldSeats(request);
+        } catch (RuntimeException e) {
+            // The seats are back on hold in the ledger; keep the hold until it expires so the user can retry
+            track(hold);
+            holdIdsByUserAndEvent.putIfAbsent(userKey(userId, hold.eventId()), hold.id());
+            throw e;
+        }
+    }
+
+    /**
+     * Give up a hold before it expires
+     * @throws ResourceNotFoundException if the hold does not exist, expired or belongs to someone else
+     */
+    public void releaseHold(String holdId, Long userId) {
+        SeatHold hold = claim(holdId, userId);
+        seatInventoryService.releaseHeldSeats(hold.eventId(), hold.ticketTypeId(), hold.seats());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSweeper() {
+        sweeper = Thread.ofPlatform().name("seat-hold-expiry").daemon(true).start(this::sweep);
+    }
+
+    @PreDestroy
+    public void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.interrupt();
+        }
+    }
+
+    private void sweep() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                HoldExpiry expiry = expiries.take();
+                SeatHold hold = holds.get(expiry.holdId());
+                // A confirmation that failed puts its hold back with the same deadline, so check it again
+                if (hold != null && hold.deadlineNanos() - System.nanoTime() <= 0 && release(hold.id())) {
+                    logger.debug("Hold {} of {} seats for event {} expired", hold.id(), hold.seats(), hold.eventId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Failed to expire a seat hold", e);
+            }
+        }
+    }
+
+    private void track(SeatHold hold) {
+        holds.put(hold.id(), hold);
+        expiries.put(new HoldExpiry(hold.id(), hold.deadlineNanos()));
+    }
+
+    private SeatHold claim(String holdId, Long userId) {
+        SeatHold hold = holds.get(holdId);
+        // Whoever removes the hold from the map owns it, so a hold is confirmed, released or expired once
+        if (hold == null || !hold.userId().equals(userId) || !holds.remove(holdId, hold)) {
+            throw new ResourceNotFoundException("Hold not found or expired");
+        }
+        holdIdsByUserAndEvent.remove(userKey(userId, hold.eventId()), holdId);
+        return hold;
+    }
+
+    private boolean release(String holdId) {
+        SeatHold hold = holds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        holdIdsByUserAndEvent.remove(userKey(hold.userId(), hold.eventId()), holdId);
+        seatInventoryService.releaseHeldSeats(hold.eventId(), hold.ticketTypeId(), hold.seats());
+        return true;
+    }
+
+    private static String userKey(Long userId, Long eventId) {
+        return userId + ":" + eventId;
+    }
+
+    private record SeatHold(String id, Long userId, Long eventId, Long ticketTypeId, int seats,
+                            LocalDateTime expiresAt, long deadlineNanos) {
+    }
+
+    private record HoldExpiry(String holdId, long deadlineNanos) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineNanos, ((HoldExpiry) other).deadlineNanos);
+        }
+    }
+}
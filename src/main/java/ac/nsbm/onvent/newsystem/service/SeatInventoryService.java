@@ -0,0 +1,501 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.TicketType;
+import ac.nsbm.onvent.newsystem.exception.InsufficientSeatsException;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory seat ledger used to check and reserve seats without counting tickets on every booking.
+ *
+ * Each event and ticket type has a counter of sold seats. Counters are warmed from the tickets table
+ * at startup, changed atomically when a booking or cancellation happens, and reconciled against the
+ * tickets table periodically. Changes made inside a transaction are tracked as pending until the
+ * transaction completes, so a reconciliation never lowers a counter below what is really sold.
+ * Counters with a change between its database commit and its settlement are left for the next
+ * reconciliation, since the database may or may not show that change yet.
+ * Seats on hold (see SeatHoldService) live only here: they are taken from availability like sold
+ * seats until they are confirmed into tickets or released.
+ */
+@Service
+public class SeatInventoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatInventoryService.class);
+
+    private final TicketRepository ticketRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Map<Long, SeatCounter> eventCounters = new ConcurrentHashMap<>();
+    private final Map<Long, SeatCounter> ticketTypeCounters = new ConcurrentHashMap<>();
+
+    // Seat changes share the read lock; reconciliation takes the write lock to see a stable pending count
+    private final ReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+
+    public SeatInventoryService(TicketRepository ticketRepository, PlatformTransactionManager transactionManager) {
+        this.ticketRepository = ticketRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Reserve seats for the current transaction.
+     * The reservation is kept when the transaction commits and given back when it rolls back.
+     * @param event The event being booked
+     * @param ticketType The ticket type being booked, or null for general admission
+     * @param seats Number of seats to reserve
+     * @return Seats still available after the reservation
+     * @throws InsufficientSeatsException if the event or ticket type does not have enough seats left
+     */
+    public int reserveSeats(Event event, TicketType ticketType, int seats) {
+        requireTransaction();
+
+        reconcileLock.readLock().lock();
+        try {
+            SeatCounter eventCounter = eventCounter(event.getId());
+            SeatCounter ticketTypeCounter = ticketType != null ? ticketTypeCounter(ticketType.getId()) : null;
+
+            int remaining;
+            if (ticketTypeCounter != null) {
+                // Ticket type quantity is the limit; the event counter still tracks every ticket for the event
+                remaining = ticketTypeCounter.tryAcquire(seats, ticketType.getQuantity());
+                if (remaining < 0) {
+                    throw insufficientSeats(ticketType.getQuantity() - ticketTypeCounter.taken(), seats);
+                }
+                eventCounter.acquire(seats);
+            } else {
+                remaining = eventCounter.tryAcquire(seats, event.getSeats());
+                if (remaining < 0) {
+                    throw insufficientSeats(event.getSeats() - eventCounter.taken(), seats);
+                }
+            }
+
+            TransactionSynchronizationManager.registerSynchronization(
+                    new SeatChangeSynchronization(eventCounter, ticketTypeCounter, seats));
+            return remaining;
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Give seats back when tickets are cancelled in the current transaction.
+     * The seats become available only after the transaction commits.
+     * @param eventId The event the tickets belong to
+     * @param ticketTypeId The ticket type of the tickets, or null for general admission
+     * @param seats Number of seats to release
+     */
+    public void releaseSeats(Long eventId, Long ticketTypeId, int seats) {
+        requireTransaction();
+
+        reconcileLock.readLock().lock();
+        try {
+            SeatCounter eventCounter = eventCounter(eventId);
+            SeatCounter ticketTypeCounter = ticketTypeId != null ? ticketTypeCounter(ticketTypeId) : null;
+
+            TransactionSynchronizationManager.registerSynchronization(
+                    new SeatChangeSynchronization(eventCounter, ticketTypeCounter, -seats));
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hold seats for a user without a transaction; they stay taken until confirmed or released.
+     * @return Seats still available after the hold
+     * @throws InsufficientSeatsException if the event or ticket type does not have enough seats left
+     */
+    public int holdSeats(Event event, TicketType ticketType, int seats) {
+        reconcileLock.readLock().lock();
+        try {
+            SeatCounter eventCounter = eventCounter(event.getId());
+            SeatCounter ticketTypeCounter = ticketType != null ? ticketTypeCounter(ticketType.getId()) : null;
+
+            int remaining;
+            if (ticketTypeCounter != null) {
+                remaining = ticketTypeCounter.tryHold(seats, ticketType.getQuantity());
+                if (remaining < 0) {
+                    throw insufficientSeats(ticketType.getQuantity() - ticketTypeCounter.taken(), seats);
+                }
+                eventCounter.hold(seats);
+            } else {
+                remaining = eventCounter.tryHold(seats, event.getSeats());
+                if (remaining < 0) {
+                    throw insufficientSeats(event.getSeats() - eventCounter.taken(), seats);
+                }
+            }
+            return remaining;
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Give held seats back, when a hold expires or is cancelled
+     */
+    public void releaseHeldSeats(Long eventId, Long ticketTypeId, int seats) {
+        reconcileLock.readLock().lock();
+        try {
+            eventCounter(eventId).releaseHold(seats);
+            if (ticketTypeId != null) {
+                ticketTypeCounter(ticketTypeId).releaseHold(seats);
+            }
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Turn held seats into a reservation of the current transaction. No capacity check is needed since
+     * the seats are already taken; if the transaction rolls back the seats go back on hold.
+     * @return Seats still available
+     */
+    public int confirmHeldSeats(Event event, TicketType ticketType, int seats) {
+        requireTransaction();
+
+        reconcileLock.readLock().lock();
+        try {
+            SeatCounter eventCounter = eventCounter(event.getId());
+            SeatCounter ticketTypeCounter = ticketType != null ? ticketTypeCounter(ticketType.getId()) : null;
+
+            eventCounter.confirmHold(seats);
+            if (ticketTypeCounter != null) {
+                ticketTypeCounter.confirmHold(seats);
+            }
+
+            TransactionSynchronizationManager.registerSynchronization(
+                    new HoldConfirmationSynchronization(eventCounter, ticketTypeCounter, seats));
+            return ticketTypeCounter != null
+                    ? ticketType.getQuantity() - ticketTypeCounter.taken()
+                    : event.getSeats() - eventCounter.taken();
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of seats on hold for an event
+     */
+    public int getHeldSeats(Long eventId) {
+        reconcileLock.readLock().lock();
+        try {
+            return eventCounter(eventId).held.get();
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of seats booked for an event, including bookings that are still being committed
+     */
+    public int getBookedSeats(Long eventId) {
+        reconcileLock.readLock().lock();
+        try {
+            return eventCounter(eventId).sold();
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of seats booked for a ticket type, including bookings that are still being committed
+     */
+    public int getBookedSeatsForTicketType(Long ticketTypeId) {
+        reconcileLock.readLock().lock();
+        try {
+            return ticketTypeCounter(ticketTypeId).sold();
+        } finally {
+            reconcileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the counter of a deleted event once the deletion commits, so counters of deleted events
+     * do not pile up. A rolled back deletion keeps the counter.
+     * @param eventId The deleted event
+     */
+    public void forgetEvent(Long eventId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventCounters.remove(eventId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    eventCounters.remove(eventId);
+                }
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reconcile();
+        logger.info("Seat inventory warmed for {} events and {} ticket types", eventCounters.size(), ticketTypeCounters.size());
+    }
+
+    /**
+     * Reset every counter to the number of active tickets in the database plus uncommitted reservations
+     * and seats on hold. Uncommitted releases add nothing: their tickets are still active in the database.
+     * The read-only transaction is opened before taking the write lock so that reconciliation
+     * never waits for a pooled connection held by a booking blocked on the lock.
+     */
+    @Scheduled(fixedDelayString = "${onvent.seat-inventory.reconcile-interval-ms:60000}",
+               initialDelayString = "${onvent.seat-inventory.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            reconcileLock.writeLock().lock();
+            try {
+                reconcileCounters(eventCounters, ticketRepository.countActiveTicketsGroupedByEventId(), "event");
+                reconcileCounters(ticketTypeCounters, ticketRepository.countActiveTicketsGroupedByTicketTypeId(), "ticket type");
+            } finally {
+                reconcileLock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void reconcileCounters(Map<Long, SeatCounter> counters, List<Object[]> rows, String label) {
+        Map<Long, Integer> activeCounts = new HashMap<>();
+        for (Object[] row : rows) {
+            activeCounts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+
+        activeCounts.keySet().forEach(id -> counters.putIfAbsent(id, new SeatCounter(0)));
+
+        counters.forEach((id, counter) -> {
+            if (counter.committing.get() > 0) {
+                logger.debug("Seat inventory reconciliation of {} {} skipped while a change is committing", label, id);
+                return;
+            }
+            int expected = activeCounts.getOrDefault(id, 0) + counter.pendingReserves.get() + counter.held.get();
+            int previous = counter.taken.getAndSet(expected);
+            if (previous != expected) {
+                logger.debug("Seat inventory drift for {} {}: ledger={}, database={}", label, id, previous, expected);
+            }
+        });
+    }
+
+    private SeatCounter eventCounter(Long eventId) {
+        return counter(eventCounters, eventId, ticketRepository::countActiveTicketsByEventId);
+    }
+
+    private SeatCounter ticketTypeCounter(Long ticketTypeId) {
+        return counter(ticketTypeCounters, ticketTypeId, ticketRepository::countActiveTicketsByTicketTypeId);
+    }
+
+    // The count runs outside the map so a slow query does not block other keys of the same bin;
+    // when two threads load the same counter, the first one stored wins
+    private SeatCounter counter(Map<Long, SeatCounter> counters, Long id, Function<Long, Long> countActiveTickets) {
+        SeatCounter counter = counters.get(id);
+        if (counter != null) {
+            return counter;
+        }
+        SeatCounter loaded = new SeatCounter(countActiveTickets.apply(id).intValue());
+        SeatCounter existing = counters.putIfAbsent(id, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Seat changes must be made inside a transaction");
+        }
+    }
+
+    private InsufficientSeatsException insufficientSeats(int availableSeats, int requestedSeats) {
+        return new InsufficientSeatsException("Insufficient seats available. Available: " + Math.max(availableSeats, 0) + ", Requested: " + requestedSeats);
+    }
+
+    /**
+     * Taken seats for one event or ticket type: sold seats plus seats on hold, so one compare-and-set
+     * checks the capacity against both. pendingReserves holds seats reserved by transactions that have
+     * not completed yet, committing counts the transactions that are between their commit and its
+     * settlement; held is the part of taken that is on hold.
+     */
+    private static final class SeatCounter {
+        private final AtomicInteger taken;
+        private final AtomicInteger pendingReserves = new AtomicInteger();
+        private final AtomicInteger committing = new AtomicInteger();
+        private final AtomicInteger held = new AtomicInteger();
+
+        private SeatCounter(int sold) {
+            this.taken = new AtomicInteger(sold);
+        }
+
+        private int taken() {
+            return taken.get();
+        }
+
+        private int sold() {
+            return taken.get() - held.get();
+        }
+
+        /**
+         * @return Seats left after acquiring, or -1 if the capacity would be exceeded
+         */
+        private int tryAcquire(int seats, int capacity) {
+            int remaining = tryTake(seats, capacity);
+            if (remaining >= 0) {
+                pendingReserves.addAndGet(seats);
+            }
+            return remaining;
+        }
+
+        private void acquire(int seats) {
+            taken.addAndGet(seats);
+            pendingReserves.addAndGet(seats);
+        }
+
+        private int tryHold(int seats, int capacity) {
+            int remaining = tryTake(seats, capacity);
+            if (remaining >= 0) {
+                held.addAndGet(seats);
+            }
+            return remaining;
+        }
+
+        private void hold(int seats) {
+            taken.addAndGet(seats);
+            held.addAndGet(seats);
+        }
+
+        private void releaseHold(int seats) {
+            held.addAndGet(-seats);
+            taken.addAndGet(-seats);
+        }
+
+        // The seats stay taken and move from held to pending
+        private void confirmHold(int seats) {
+            pendingReserves.addAndGet(seats);
+            held.addAndGet(-seats);
+        }
+
+        private int tryTake(int seats, int capacity) {
+            while (true) {
+                int current = taken.get();
+                if (current + seats > capacity) {
+                    return -1;
+                }
+                if (taken.compareAndSet(current, current + seats)) {
+                    return capacity - current - seats;
+                }
+            }
+        }
+    }
+
+    /**
+     * Settles the pending changes of a transaction on the event and ticket type counters once it completes.
+     * From just before the commit until the settlement the counters are marked as committing, so
+     * reconciliation does not reset them from a database count that may already include the change.
+     */
+    private abstract class CounterSynchronization implements TransactionSynchronization {
+        private final SeatCounter eventCounter;
+        private final SeatCounter ticketTypeCounter;
+        private boolean committing;
+
+        private CounterSynchronization(SeatCounter eventCounter, SeatCounter ticketTypeCounter) {
+            this.eventCounter = eventCounter;
+            this.ticketTypeCounter = ticketTypeCounter;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            committing = true;
+            eventCounter.committing.incrementAndGet();
+            if (ticketTypeCounter != null) {
+                ticketTypeCounter.committing.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            boolean committed = status == STATUS_COMMITTED;
+            reconcileLock.readLock().lock();
+            try {
+                settle(eventCounter, committed);
+                if (ticketTypeCounter != null) {
+                    settle(ticketTypeCounter, committed);
+                }
+                if (committing) {
+                    eventCounter.committing.decrementAndGet();
+                    if (ticketTypeCounter != null) {
+                        ticketTypeCounter.committing.decrementAndGet();
+                    }
+                }
+            } finally {
+                reconcileLock.readLock().unlock();
+            }
+        }
+
+        protected abstract void settle(SeatCounter counter, boolean committed);
+    }
+
+    /**
+     * Settles a seat reservation or release.
+     * A positive delta is a reservation, a negative delta is a release.
+     */
+    private final class SeatChangeSynchronization extends CounterSynchronization {
+        private final int delta;
+
+        private SeatChangeSynchronization(SeatCounter eventCounter, SeatCounter ticketTypeCounter, int delta) {
+            super(eventCounter, ticketTypeCounter);
+            this.delta = delta;
+        }
+
+        @Override
+        protected void settle(SeatCounter counter, boolean committed) {
+            int seats = Math.abs(delta);
+            if (delta > 0) {
+                if (!committed) {
+                    // Rolled back reservation: give the seats back
+                    counter.taken.addAndGet(-seats);
+                }
+                counter.pendingReserves.addAndGet(-seats);
+            } else {
+                if (committed) {
+                    // Committed cancellation: the seats are free again
+                    counter.taken.addAndGet(-seats);
+                }
+            }
+        }
+    }
+
+    /**
+     * Settles a hold confirmation.
+     * Committed seats are sold; rolled back seats go back on hold, where the hold's expiry will find them.
+     */
+    private final class HoldConfirmationSynchronization extends CounterSynchronization {
+        private final int seats;
+
+        private HoldConfirmationSynchronization(SeatCounter eventCounter, SeatCounter ticketTypeCounter, int seats) {
+            super(eventCounter, ticketTypeCounter);
+            this.seats = seats;
+        }
+
+        @Override
+        protected void settle(SeatCounter counter, boolean committed) {
+            if (!committed) {
+                counter.held.addAndGet(seats);
+            }
+            counter.pendingReserves.addAndGet(-seats);
+        }
+    }
+}
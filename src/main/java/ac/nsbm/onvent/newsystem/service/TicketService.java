@@ -8,41 +8,75 @@ import ac.nsbm.onvent.newsystem.dto.BookingRequest;
 import ac.nsbm.onvent.newsystem.dto.BookingResponse;
 import ac.nsbm.onvent.newsystem.dto.DashboardStatsDTO;
 import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.EventSalesRollup;
 import ac.nsbm.onvent.newsystem.entity.Ticket;
 import ac.nsbm.onvent.newsystem.entity.TicketType;
 import ac.nsbm.onvent.newsystem.entity.User;
 import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.EventSalesRollupRepository;
 import ac.nsbm.onvent.newsystem.repository.TicketRepository;
 import ac.nsbm.onvent.newsystem.repository.TicketTypeRepository;
 import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class TicketService {
 
+    public static final int MAX_TICKETS_PER_BOOKING = 10;
+    private static final int EXPORT_CLEAR_INTERVAL = 100;
+
+    /**
+     * File formats of the bulk ticket export
+     */
+    public enum ExportFormat {
+        PDF, ZIP
+    }
+
     private final TicketRepository ticketRepository;
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final TicketTypeRepository ticketTypeRepository;
     
     @Autowired
-    private EmailService emailService;
+    private NotificationService notificationService;
     
     @Autowired
     private PdfService pdfService;
+    
+    @Autowired
+    private SeatInventoryService seatInventoryService;
+    
+    @Autowired
+    private EventSalesRollupRepository eventSalesRollupRepository;
+    
+    @Autowired
+    private BookingMetrics bookingMetrics;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${onvent.dashboard.rollup-enabled:false}")
+    private boolean dashboardRollupEnabled;
 
     public TicketService(TicketRepository ticketRepository, EventRepository eventRepository, UserRepository userRepository, TicketTypeRepository ticketTypeRepository) {
         this.ticketRepository = ticketRepository;
@@ -56,102 +90,146 @@ public class TicketService {
      */
     @Transactional
     public BookingResponse bookTicket(BookingRequest request) {
-        // Validate request
-        if (request.getUserId() == null || request.getEventId() == null) {
-            throw new InvalidBookingException("User ID and Event ID are required");
-        }
-        
-        // Default to 1 ticket if not specified
-        int numberOfTickets = request.getNumberOfTickets() != null ? request.getNumberOfTickets() : 1;
-        
-        if (numberOfTickets <= 0) {
-            throw new InvalidBookingException("Number of tickets must be greater than 0");
-        }
-        
-        // Fetch user and event
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + request.getUserId()));
-        
-        Event event = eventRepository.findById(request.getEventId())
-                .orElseThrow(() -> new ResourceNotFoundException("Event not found with ID: " + request.getEventId()));
-        
-        // Check if event has already occurred
-        if (event.getDate().isBefore(LocalDateTime.now())) {
-            throw new InvalidBookingException("Cannot book tickets for past events");
-        }
-        
-        TicketType ticketType = null;
-        Double ticketPrice = event.getPrice(); // Default to event price
-        
-        // If ticket type is specified, validate it
-        if (request.getTicketTypeId() != null) {
-            ticketType = ticketTypeRepository.findById(request.getTicketTypeId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Ticket type not found with ID: " + request.getTicketTypeId()));
+        return book(request, false);
+    }
+    
+    /**
+     * Book the seats of a confirmed hold. The seats are already taken in the seat ledger,
+     * so only the database claim can still refuse the booking.
+     */
+    @Transactional
+    public BookingResponse bookHeldSeats(BookingRequest request) {
+        return book(request, true);
+    }
+    
+    private BookingResponse book(BookingRequest request, boolean heldSeats) {
+        Timer.Sample sample = bookingMetrics.start();
+        BookingMetrics.Outcome outcome = BookingMetrics.Outcome.FAILED;
+        try {
+            // Validate request
+            if (request.getUserId() == null || request.getEventId() == null) {
+                outcome = BookingMetrics.Outcome.INVALID_REQUEST;
+                throw new InvalidBookingException("User ID and Event ID are required");
+            }
+            
+            // Default to 1 ticket if not specified
+            int numberOfTickets = request.getNumberOfTickets() != null ? request.getNumberOfTickets() : 1;
             
-            // Verify ticket type belongs to this event
-            if (!ticketType.getEvent().getId().equals(event.getId())) {
-                throw new InvalidBookingException("Invalid ticket type for this event");
+            if (numberOfTickets <= 0) {
+                outcome = BookingMetrics.Outcome.INVALID_REQUEST;
+                throw new InvalidBookingException("Number of tickets must be greater than 0");
             }
             
-            ticketPrice = ticketType.getPrice();
-        }
-        
-        // Check available seats for this ticket type or overall event
-        int availableSeats;
-        if (ticketType != null) {
-            // Check ticket type specific availability
-            Long bookedSeats = ticketRepository.countActiveTicketsByTicketTypeId(ticketType.getId());
-            availableSeats = ticketType.getQuantity() - bookedSeats.intValue();
-        } else {
-            // Check overall event availability
-            Long bookedSeats = ticketRepository.countActiveTicketsByEventId(event.getId());
-            availableSeats = event.getSeats() - bookedSeats.intValue();
-        }
-        
-        if (availableSeats < numberOfTickets) {
-            throw new InsufficientSeatsException("Insufficient seats available. Available: " + availableSeats + ", Requested: " + numberOfTickets);
-        }
-        
-        // For simplicity, we'll book just one ticket (can be extended for multiple)
-        // Generate unique ticket code
-        String ticketCode = "TKT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        
-        // Create ticket
-        Ticket ticket = new Ticket();
-        ticket.setUser(user);
-        ticket.setEvent(event);
-        ticket.setTicketType(ticketType);
-        ticket.setTicketCode(ticketCode);
-        ticket.setPurchaseDate(LocalDateTime.now());
-        ticket.setStatus(Ticket.TicketStatus.ACTIVE.name());
-        
-        ticket = ticketRepository.save(ticket);
-        
-        // Build response
-        BookingResponse response = new BookingResponse(
-            ticket.getId(),
-            ticket.getTicketCode(),
-            ticket.getUser().getId(),
-            ticket.getUser().getName(),
-            ticket.getEvent().getId(),
-            ticket.getEvent().getTitle(),
-            ticket.getEvent().getLocation(),
-            ticket.getEvent().getDate(),
-            ticket.getEvent().getPrice(),
-            ticket.getPurchaseDate(),
-            ticket.getStatus(),
-            availableSeats
-        );
-        
-        // Send booking confirmation email
-        try {
-            emailService.sendBookingConfirmation(response, user.getEmail());
-        } catch (Exception e) {
-            // Log the error but don't fail the booking process
-            System.err.println("Failed to send booking confirmation email: " + e.getMessage());
+            if (numberOfTickets > MAX_TICKETS_PER_BOOKING) {
+                outcome = BookingMetrics.Outcome.INVALID_REQUEST;
+                throw new InvalidBookingException("A booking can contain at most " + MAX_TICKETS_PER_BOOKING + " tickets");
+            }
+            
+            // Fetch user and event
+            User user = bookingMetrics.time(BookingMetrics.Stage.USER_LOOKUP, () -> userRepository.findById(request.getUserId())
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + request.getUserId())));
+            
+            Event event = bookingMetrics.time(BookingMetrics.Stage.EVENT_LOOKUP, () -> eventRepository.findById(request.getEventId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Event not found with ID: " + request.getEventId())));
+            
+            // Check if event has already occurred
+            if (event.getDate().isBefore(LocalDateTime.now())) {
+                outcome = BookingMetrics.Outcome.PAST_EVENT;
+                throw new InvalidBookingException("Cannot book tickets for past events");
+            }
+            
+            TicketType ticketType = null;
+            Double ticketPrice = event.getPrice(); // Default to event price
+            
+            // If ticket type is specified, validate it
+            if (request.getTicketTypeId() != null) {
+                ticketType = bookingMetrics.time(BookingMetrics.Stage.TICKET_TYPE, () -> ticketTypeRepository.findById(request.getTicketTypeId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Ticket type not found with ID: " + request.getTicketTypeId())));
+                
+                // Verify ticket type belongs to this event
+                if (!ticketType.getEvent().getId().equals(event.getId())) {
+                    outcome = BookingMetrics.Outcome.INVALID_TICKET_TYPE;
+                    throw new InvalidBookingException("Invalid ticket type for this event");
+                }
+                
+                ticketPrice = ticketType.getPrice();
+            }
+            
+            // Reserve seats in the in-memory ledger; rolled back automatically if the booking fails
+            TicketType bookedType = ticketType;
+            int availableSeats = bookingMetrics.time(BookingMetrics.Stage.SEAT_LEDGER, () -> heldSeats
+                    ? seatInventoryService.confirmHeldSeats(event, bookedType, numberOfTickets)
+                    : seatInventoryService.reserveSeats(event, bookedType, numberOfTickets));
+            
+            // Claim the seats in the database with a single conditional update; this is the authoritative check
+            double amount = ticketPrice * numberOfTickets;
+            bookingMetrics.time(BookingMetrics.Stage.SEAT_CLAIM, () -> {
+                reserveSeatsInDatabase(event, bookedType, numberOfTickets);
+                recordSales(event.getId(), numberOfTickets, amount);
+            });
+            
+            // Create all tickets of the booking; the pooled ticket id sequence lets Hibernate batch the inserts,
+            // and the flush sends the batch here rather than with the next statement that needs it
+            LocalDateTime purchaseDate = LocalDateTime.now();
+            List<Ticket> tickets = new ArrayList<>(numberOfTickets);
+            for (int i = 0; i < numberOfTickets; i++) {
+                Ticket ticket = new Ticket();
+                ticket.setUser(user);
+                ticket.setEvent(event);
+                ticket.setTicketType(ticketType);
+                ticket.setTicketCode(generateTicketCode());
+                ticket.setPurchaseDate(purchaseDate);
+                ticket.setStatus(Ticket.TicketStatus.ACTIVE.name());
+                ticket.setPricePaid(ticketPrice);
+                tickets.add(ticket);
+            }
+            
+            List<Ticket> newTickets = tickets;
+            tickets = bookingMetrics.time(BookingMetrics.Stage.TICKET_INSERT, () -> {
+                List<Ticket> saved = ticketRepository.saveAll(newTickets);
+                ticketRepository.flush();
+                return saved;
+            });
+            Ticket ticket = tickets.get(0);
+            
+            // Build response
+            BookingResponse response = new BookingResponse(
+                ticket.getId(),
+                ticket.getTicketCode(),
+                ticket.getUser().getId(),
+                ticket.getUser().getName(),
+                ticket.getEvent().getId(),
+                ticket.getEvent().getTitle(),
+                ticket.getEvent().getLocation(),
+                ticket.getEvent().getDate(),
+                ticket.getEvent().getPrice(),
+                ticket.getPurchaseDate(),
+                ticket.getStatus(),
+                availableSeats
+            );
+            response.setNumberOfTickets(numberOfTickets);
+            response.setTicketCodes(tickets.stream().map(Ticket::getTicketCode).collect(Collectors.toList()));
+            response.setTotalPrice(amount);
+            
+            // Queue the confirmation email; it is sent by the notification workers after this transaction commits
+            bookingMetrics.time(BookingMetrics.Stage.NOTIFICATION,
+                    () -> notificationService.enqueueBookingConfirmation(response, user.getEmail()));
+            
+            outcome = BookingMetrics.Outcome.SUCCESS;
+            return response;
+        } catch (InsufficientSeatsException e) {
+            outcome = BookingMetrics.Outcome.INSUFFICIENT_SEATS;
+            throw e;
+        } catch (ResourceNotFoundException e) {
+            outcome = BookingMetrics.Outcome.NOT_FOUND;
+            throw e;
+        } finally {
+            if (outcome == BookingMetrics.Outcome.SUCCESS) {
+                bookingMetrics.recordOnCompletion(sample);
+            } else {
+                bookingMetrics.record(sample, outcome);
+            }
         }
-        
-        return response;
     }
     
     /**
@@ -161,43 +239,31 @@ public class TicketService {
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found with ID: " + eventId));
         
-        Long bookedSeats = ticketRepository.countActiveTicketsByEventId(eventId);
-        int availableSeats = event.getSeats() - bookedSeats.intValue();
+        // Seats on hold are not booked yet but cannot be booked by anyone else either
+        int bookedSeats = seatInventoryService.getBookedSeats(eventId);
+        int heldSeats = seatInventoryService.getHeldSeats(eventId);
+        int availableSeats = event.getSeats() - bookedSeats - heldSeats;
         
         return new AvailabilityResponse(
                 event.getId(),
                 event.getTitle(),
                 event.getSeats(),
-                bookedSeats.intValue(),
+                bookedSeats,
+                heldSeats,
                 availableSeats,
                 availableSeats > 0
         );
     }
     
     /**
-     * Get dashboard statistics for admin
+     * Get dashboard statistics for admin.
+     * Reads the maintained sales rollup when enabled, otherwise aggregates the active tickets in one query.
      */
     public DashboardStatsDTO getDashboardStats() {
-        // Get total events
-        long totalEvents = eventRepository.count();
-        
-        // Get total tickets
-        long totalTickets = ticketRepository.count();
-        
-        // Calculate total revenue
-        List<Ticket> allTickets = ticketRepository.findAll();
-        double totalRevenue = allTickets.stream()
-                .mapToDouble(ticket -> {
-                    if (ticket.getTicketType() != null) {
-                        return ticket.getTicketType().getPrice();
-                    } else if (ticket.getEvent() != null) {
-                        return ticket.getEvent().getPrice();
-                    }
-                    return 0.0;
-                })
-                .sum();
-        
-        return new DashboardStatsDTO(totalEvents, totalTickets, totalRevenue);
+        if (dashboardRollupEnabled) {
+            return eventSalesRollupRepository.getDashboardStats();
+        }
+        return ticketRepository.getDashboardStats();
     }
     
     /**
@@ -211,21 +277,21 @@ public class TicketService {
         // Get total seats for this event
         int totalSeats = event.getSeats();
         
-        // Get booked seats count
-        Long bookedSeats = ticketRepository.countActiveTicketsByEventId(eventId);
+        // Get booked seats count from the seat ledger
+        int bookedSeats = seatInventoryService.getBookedSeats(eventId);
         
         // Calculate available seats
-        int availableSeats = totalSeats - bookedSeats.intValue();
+        int availableSeats = totalSeats - bookedSeats;
         
         // Calculate booking percentage
-        double bookingPercentage = totalSeats > 0 ? (bookedSeats.doubleValue() / totalSeats) * 100 : 0;
+        double bookingPercentage = totalSeats > 0 ? ((double) bookedSeats / totalSeats) * 100 : 0;
         
         // Create response map
         Map<String, Object> stats = new HashMap<>();
         stats.put("eventId", eventId);
         stats.put("eventTitle", event.getTitle());
         stats.put("totalSeats", totalSeats);
-        stats.put("bookedSeats", bookedSeats.intValue());
+        stats.put("bookedSeats", bookedSeats);
         stats.put("availableSeats", availableSeats);
         stats.put("bookingPercentage", bookingPercentage);
         
@@ -233,46 +299,11 @@ public class TicketService {
     }
     
     /**
-     * Get all bookings for a specific user with pagination
+     * Get all bookings for a specific user with pagination.
+     * Pages in the database: one query for the page and one for the total.
      */
     public Page<BookingResponse> getUserBookings(Long userId, Pageable pageable) {
-        List<Ticket> allTickets = ticketRepository.findActiveTicketsByUserId(userId);
-        
-        // Apply pagination manually since we're not using a database query with pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), allTickets.size());
-        
-        List<Ticket> paginatedTickets = allTickets.subList(start, end);
-        
-        List<BookingResponse> bookingResponses = paginatedTickets.stream()
-                .map(ticket -> {
-                    int availableSeats;
-                    if (ticket.getTicketType() != null) {
-                        Long bookedSeats = ticketRepository.countActiveTicketsByTicketTypeId(ticket.getTicketType().getId());
-                        availableSeats = ticket.getTicketType().getQuantity() - bookedSeats.intValue();
-                    } else {
-                        Long bookedSeats = ticketRepository.countActiveTicketsByEventId(ticket.getEvent().getId());
-                        availableSeats = ticket.getEvent().getSeats() - bookedSeats.intValue();
-                    }
-                    
-                    return new BookingResponse(
-                        ticket.getId(),
-                        ticket.getTicketCode(),
-                        ticket.getUser().getId(),
-                        ticket.getUser().getName(),
-                        ticket.getEvent().getId(),
-                        ticket.getEvent().getTitle(),
-                        ticket.getEvent().getLocation(),
-                        ticket.getEvent().getDate(),
-                        ticket.getEvent().getPrice(),
-                        ticket.getPurchaseDate(),
-                        ticket.getStatus(),
-                        availableSeats
-                    );
-                })
-                .collect(Collectors.toList());
-        
-        return new PageImpl<>(bookingResponses, pageable, allTickets.size());
+        return ticketRepository.findActiveBookingsByUserId(userId, pageable);
     }
     
     /**
@@ -286,35 +317,7 @@ public class TicketService {
      * Get all bookings for a specific user
      */
     public List<BookingResponse> getUserBookings(Long userId) {
-        List<Ticket> tickets = ticketRepository.findActiveTicketsByUserId(userId);
-        
-        return tickets.stream()
-                .map(ticket -> {
-                    int availableSeats;
-                    if (ticket.getTicketType() != null) {
-                        Long bookedSeats = ticketRepository.countActiveTicketsByTicketTypeId(ticket.getTicketType().getId());
-                        availableSeats = ticket.getTicketType().getQuantity() - bookedSeats.intValue();
-                    } else {
-                        Long bookedSeats = ticketRepository.countActiveTicketsByEventId(ticket.getEvent().getId());
-                        availableSeats = ticket.getEvent().getSeats() - bookedSeats.intValue();
-                    }
-                    
-                    return new BookingResponse(
-                        ticket.getId(),
-                        ticket.getTicketCode(),
-                        ticket.getUser().getId(),
-                        ticket.getUser().getName(),
-                        ticket.getEvent().getId(),
-                        ticket.getEvent().getTitle(),
-                        ticket.getEvent().getLocation(),
-                        ticket.getEvent().getDate(),
-                        ticket.getEvent().getPrice(),
-                        ticket.getPurchaseDate(),
-                        ticket.getStatus(),
-                        availableSeats
-                    );
-                })
-                .collect(Collectors.toList());
+        return ticketRepository.findActiveBookingsByUserId(userId);
     }
     
     /**
@@ -339,6 +342,109 @@ public class TicketService {
         
         ticket.setStatus(Ticket.TicketStatus.CANCELLED.name());
         ticketRepository.save(ticket);
+        
+        // Free the seat in the database and in the ledger once the cancellation commits
+        Long eventId = ticket.getEvent().getId();
+        Long ticketTypeId = ticket.getTicketType() != null ? ticket.getTicketType().getId() : null;
+        if (ticketTypeId != null) {
+            ticketTypeRepository.releaseSeats(ticketTypeId, 1);
+        }
+        eventRepository.releaseSeats(eventId, 1);
+        seatInventoryService.releaseSeats(eventId, ticketTypeId, 1);
+        
+        // Refund what was paid, not what the ticket costs now
+        recordSales(eventId, -1, -ticket.getPricePaid());
+    }
+    
+    /**
+     * Get the download file name of an event's ticket export
+     * @throws ResourceNotFoundException if the event does not exist
+     */
+    public String getTicketExportFileName(Long eventId, ExportFormat format) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResourceNotFoundException("Event not found with ID: " + eventId);
+        }
+        return "event-" + eventId + "-tickets." + format.name().toLowerCase();
+    }
+    
+    /**
+     * Write every active ticket of an event to the stream, as one multi-page PDF or a ZIP of PDFs.
+     * Tickets are read through a database cursor and the persistence context is cleared as the
+     * export goes, so memory use does not grow with the number of attendees.
+     * @return Number of tickets written
+     */
+    @Transactional(readOnly = true)
+    public int exportEventTickets(Long eventId, ExportFormat format, OutputStream out) {
+        try (Stream<Ticket> tickets = ticketRepository.streamActiveTicketsByEventId(eventId)) {
+            int[] sinceClear = {0};
+            Iterator<BookingResponse> bookings = tickets.map(ticket -> {
+                BookingResponse booking = toExportedTicket(ticket);
+                // Detach exported tickets and attendees so the persistence context stays small
+                if (++sinceClear[0] == EXPORT_CLEAR_INTERVAL) {
+                    sinceClear[0] = 0;
+                    entityManager.clear();
+                }
+                return booking;
+            }).iterator();
+            return format == ExportFormat.ZIP
+                    ? pdfService.writeTicketsZip(bookings, out)
+                    : pdfService.writeTicketsPdf(bookings, out);
+        }
+    }
+    
+    private BookingResponse toExportedTicket(Ticket ticket) {
+        return new BookingResponse(
+                ticket.getId(),
+                ticket.getTicketCode(),
+                ticket.getUser().getId(),
+                ticket.getUser().getName(),
+                ticket.getEvent().getId(),
+                ticket.getEvent().getTitle(),
+                ticket.getEvent().getLocation(),
+                ticket.getEvent().getDate(),
+                ticket.getEvent().getPrice(),
+                ticket.getPurchaseDate(),
+                ticket.getStatus(),
+                ticket.getEvent().getSeats() - ticket.getEvent().getSeatsSold()
+        );
+    }
+    
+    /**
+     * Apply a booking or cancellation to the event's sales rollup.
+     * Runs after the event row has been updated, so concurrent changes to the same event are
+     * already serialized and the first sale can insert the row without racing.
+     */
+    private void recordSales(Long eventId, long tickets, double revenue) {
+        if (eventSalesRollupRepository.addSales(eventId, tickets, revenue) == 0) {
+            eventSalesRollupRepository.save(EventSalesRollup.builder()
+                    .eventId(eventId)
+                    .ticketsSold(tickets)
+                    .revenue(revenue)
+                    .build());
+        }
+    }
+    
+    /**
+     * Generate a unique ticket code
+     */
+    private String generateTicketCode() {
+        return "TKT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+    
+    /**
+     * Reserve seats with conditional updates on the sold counters, so concurrent bookings
+     * cannot oversell even without row locks held across the availability check.
+     * Ticket type rows are always updated before the event row to keep lock order consistent.
+     */
+    private void reserveSeatsInDatabase(Event event, TicketType ticketType, int seats) {
+        if (ticketType != null) {
+            if (ticketTypeRepository.reserveSeats(ticketType.getId(), seats) == 0) {
+                throw new InsufficientSeatsException("Insufficient seats available for ticket type: " + ticketType.getName() + ". Requested: " + seats);
+            }
+            eventRepository.addSeatsSold(event.getId(), seats);
+        } else if (eventRepository.reserveSeats(event.getId(), seats) == 0) {
+            throw new InsufficientSeatsException("Insufficient seats available. Requested: " + seats);
+        }
     }
     
     /**
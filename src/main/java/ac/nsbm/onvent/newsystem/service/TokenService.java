@@ -0,0 +1,133 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
+import ac.nsbm.onvent.newsystem.dto.AuthResponse;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies the signed tokens of the stateless authentication mode (onvent.auth.mode=token).
+ *
+ * Tokens are JWTs signed with HMAC-SHA256 and carry everything in UserPrincipal, so any node holding the
+ * shared secret can authenticate a request without a session or a database lookup. Access tokens are
+ * short-lived; refresh tokens live longer and are only accepted by the refresh endpoint.
+ */
+@Service
+@ConditionalOnProperty(name = "onvent.auth.mode", havingValue = "token")
+public class TokenService {
+
+    public enum TokenType { ACCESS, REFRESH }
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKeySpec key;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    @Autowired
+    public TokenService(@Value("${onvent.auth.token.secret:}") String secret,
+                        @Value("${onvent.auth.token.access-ttl:15m}") Duration accessTokenTtl,
+                        @Value("${onvent.auth.token.refresh-ttl:7d}") Duration refreshTokenTtl,
+                        ObjectMapper objectMapper) {
+        this(secret, accessTokenTtl, refreshTokenTtl, objectMapper, Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration accessTokenTtl, Duration refreshTokenTtl, ObjectMapper objectMapper, Clock clock) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("onvent.auth.token.secret must be at least " + MIN_SECRET_BYTES + " bytes in token authentication mode");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    /**
+     * Add a new access and refresh token for the user to a login or refresh response
+     */
+    public AuthResponse addTokens(AuthResponse response, UserPrincipal user) {
+        response.setAccessToken(issueToken(user, TokenType.ACCESS));
+        response.setRefreshToken(issueToken(user, TokenType.REFRESH));
+        response.setTokenType("Bearer");
+        response.setExpiresIn(accessTokenTtl.toSeconds());
+        return response;
+    }
+
+    public String issueToken(UserPrincipal user, TokenType type) {
+        long now = clock.instant().getEpochSecond();
+        long ttl = (type == TokenType.ACCESS ? accessTokenTtl : refreshTokenTtl).toSeconds();
+        TokenClaims claims = new TokenClaims(String.valueOf(user.getId()), user.getUsername(), user.getName(),
+                user.getEmail(), user.getRole(), type, now, now + ttl);
+        try {
+            String signingInput = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return signingInput + "." + ENCODER.encodeToString(sign(signingInput));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write token claims", e);
+        }
+    }
+
+    /**
+     * Verify a token and rebuild its user
+     * @param token The token as issued
+     * @param type The type the token must have
+     * @return The user, or empty if the token is malformed, forged, expired or of another type
+     */
+    public Optional<UserPrincipal> verifyToken(String token, TokenType type) {
+        String[] parts = token.split("\\.", -1);
+        // Only our own header is accepted, so the algorithm cannot be swapped
+        if (parts.length != 3 || !HEADER.equals(parts[0])) {
+            return Optional.empty();
+        }
+        try {
+            byte[] signature = DECODER.decode(parts[2]);
+            if (!MessageDigest.isEqual(signature, sign(parts[0] + "." + parts[1]))) {
+                return Optional.empty();
+            }
+            TokenClaims claims = objectMapper.readValue(DECODER.decode(parts[1]), TokenClaims.class);
+            if (claims.type() != type || claims.exp() <= clock.instant().getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(UserPrincipal.of(Long.valueOf(claims.sub()), claims.username(), claims.name(), claims.email(), claims.role()));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String signingInput) {
+        try {
+            // Mac instances are not thread-safe and cheap to create
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    record TokenClaims(String sub, String username, String name, String email, Role role,
+                       TokenType type, long iat, long exp) {
+    }
+}
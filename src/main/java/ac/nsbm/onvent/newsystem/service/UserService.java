@@ -1,10 +1,14 @@
 package ac.nsbm.onvent.newsystem.service;
 
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
 import ac.nsbm.onvent.newsystem.dto.AuthResponse;
 import ac.nsbm.onvent.newsystem.dto.SignupRequest;
 import ac.nsbm.onvent.newsystem.entity.Role;
 import ac.nsbm.onvent.newsystem.entity.User;
 import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -74,6 +78,23 @@ public class UserService {
         return userRepository.findByUsernameOrEmail(usernameOrEmail);
     }
     
+    /**
+     * Get the user of the current request from the SecurityContext, without a database query.
+     * Authentications made before the custom principal existed are resolved through the users cache.
+     * @return The current user, or empty if the request is not authenticated
+     */
+    public Optional<UserPrincipal> getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return Optional.empty();
+        }
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return Optional.of(principal);
+        }
+        return userRepository.findPrincipalByUsernameOrEmail(authentication.getName());
+    }
+    
     public AuthResponse convertToAuthResponse(User user, String message) {
         return AuthResponse.builder()
                 .id(user.getId())
@@ -84,4 +105,15 @@ public class UserService {
                 .message(message)
                 .build();
     }
+    
+    public AuthResponse convertToAuthResponse(UserPrincipal principal, String message) {
+        return AuthResponse.builder()
+                .id(principal.getId())
+                .username(principal.getUsername())
+                .name(principal.getName())
+                .email(principal.getEmail())
+                .role(principal.getRole())
+                .message(message)
+                .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+-- Full-text search over events, replacing LOWER(title) LIKE '%x%' scans.
+-- The 'simple' configuration keeps names and places unstemmed so prefix queries (term:*) match as typed.
+ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(category, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(location, '')), 'C') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'D')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector);
+
+-- Rollback
+-- DROP INDEX idx_events_search_vector;
+-- ALTER TABLE events DROP COLUMN search_vector;
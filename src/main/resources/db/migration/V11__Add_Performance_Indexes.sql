@@ -0,0 +1,23 @@
+-- Indexes for the selective repository queries; events (date) is already covered by idx_events_date_id (V9)
+
+-- Tickets of one event by status: seat counts, ticket export and per-event lists
+CREATE INDEX IF NOT EXISTS idx_tickets_event_status ON tickets (event_id, status);
+
+-- Active tickets of one ticket type: seat counts for ticket types
+CREATE INDEX IF NOT EXISTS idx_tickets_ticket_type_active ON tickets (ticket_type_id) WHERE status = 'ACTIVE';
+
+-- Active bookings of one user, newest first, so a page is read straight off the index
+CREATE INDEX IF NOT EXISTS idx_tickets_user_active ON tickets (user_id, purchase_date DESC, id DESC) WHERE status = 'ACTIVE';
+
+-- Ticket types of one event
+CREATE INDEX IF NOT EXISTS idx_ticket_types_event ON ticket_types (event_id);
+
+-- Case-insensitive category prefix filter of the event search
+CREATE INDEX IF NOT EXISTS idx_events_category ON events (LOWER(category) text_pattern_ops);
+
+-- Rollback
+-- DROP INDEX idx_events_category;
+-- DROP INDEX idx_ticket_types_event;
+-- DROP INDEX idx_tickets_user_active;
+-- DROP INDEX idx_tickets_ticket_type_active;
+-- DROP INDEX idx_tickets_event_status;
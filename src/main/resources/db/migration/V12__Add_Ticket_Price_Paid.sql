@@ -0,0 +1,13 @@
+-- Price each ticket was bought at; cancellations and the dashboard use it instead of the current price
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS price_paid DOUBLE PRECISION;
+
+-- Backfill from the prices in force now, by ticket type when there is one (the best record available)
+UPDATE tickets t
+SET price_paid = COALESCE((SELECT tt.price FROM ticket_types tt WHERE tt.id = t.ticket_type_id),
+                          (SELECT e.price FROM events e WHERE e.id = t.event_id))
+WHERE t.price_paid IS NULL;
+
+ALTER TABLE tickets ALTER COLUMN price_paid SET NOT NULL;
+
+-- Rollback
+-- ALTER TABLE tickets DROP COLUMN price_paid;
@@ -0,0 +1,11 @@
+-- Case-insensitive category substring filter of the event search (LOWER(category) LIKE '%x%').
+-- A btree cannot serve a leading wildcard, so the V11 prefix index is replaced by a trigram index.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP INDEX IF EXISTS idx_events_category;
+
+CREATE INDEX IF NOT EXISTS idx_events_category_trgm ON events USING GIN (LOWER(category) gin_trgm_ops);
+
+-- Rollback
+-- DROP INDEX idx_events_category_trgm;
+-- CREATE INDEX IF NOT EXISTS idx_events_category ON events (LOWER(category) text_pattern_ops);
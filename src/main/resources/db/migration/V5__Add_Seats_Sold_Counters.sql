@@ -0,0 +1,14 @@
+-- Add sold seat counters used by the atomic conditional seat reservation
+ALTER TABLE events ADD COLUMN IF NOT EXISTS seats_sold INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE ticket_types ADD COLUMN IF NOT EXISTS seats_sold INTEGER NOT NULL DEFAULT 0;
+
+-- Backfill the counters from the active tickets already booked
+UPDATE events e
+SET seats_sold = (SELECT COUNT(*) FROM tickets t WHERE t.event_id = e.id AND t.status = 'ACTIVE');
+
+UPDATE ticket_types tt
+SET seats_sold = (SELECT COUNT(*) FROM tickets t WHERE t.ticket_type_id = tt.id AND t.status = 'ACTIVE');
+
+-- Rollback
+-- ALTER TABLE ticket_types DROP COLUMN seats_sold;
+-- ALTER TABLE events DROP COLUMN seats_sold;
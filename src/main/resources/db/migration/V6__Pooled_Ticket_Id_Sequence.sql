@@ -0,0 +1,6 @@
+-- Let Hibernate allocate ticket ids in blocks of 50 (pooled optimizer) so inserts can be batched.
+-- The sequence value marks the top of the last allocated block, so existing ids are never reused.
+ALTER SEQUENCE tickets_id_seq INCREMENT BY 50;
+
+-- Rollback
+-- ALTER SEQUENCE tickets_id_seq INCREMENT BY 1;
@@ -0,0 +1,20 @@
+-- Transactional outbox for notifications sent after a booking commits
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(255) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    payload VARCHAR(4000) NOT NULL,
+    status VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    locked_at TIMESTAMP(6),
+    created_at TIMESTAMP(6) NOT NULL,
+    sent_at TIMESTAMP(6),
+    last_error VARCHAR(1000)
+);
+
+-- Workers only look at rows that are due, so keep that lookup small
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_due ON notification_outbox (next_attempt_at) WHERE status = 'PENDING';
+
+-- Rollback
+-- DROP TABLE notification_outbox;
@@ -0,0 +1,19 @@
+-- Per-event running totals read by the admin dashboard instead of scanning tickets
+CREATE TABLE IF NOT EXISTS event_sales_rollup (
+    event_id BIGINT PRIMARY KEY REFERENCES events(id) ON DELETE CASCADE,
+    tickets_sold BIGINT NOT NULL DEFAULT 0,
+    revenue DOUBLE PRECISION NOT NULL DEFAULT 0
+);
+
+-- Backfill from the active tickets already booked, priced by ticket type when there is one
+INSERT INTO event_sales_rollup (event_id, tickets_sold, revenue)
+SELECT t.event_id, COUNT(*), SUM(COALESCE(tt.price, e.price))
+FROM tickets t
+JOIN events e ON e.id = t.event_id
+LEFT JOIN ticket_types tt ON tt.id = t.ticket_type_id
+WHERE t.status = 'ACTIVE'
+GROUP BY t.event_id
+ON CONFLICT (event_id) DO NOTHING;
+
+-- Rollback
+-- DROP TABLE event_sales_rollup;
@@ -0,0 +1,5 @@
+-- Supports keyset paging of the event search on (date, id)
+CREATE INDEX IF NOT EXISTS idx_events_date_id ON events (date, id);
+
+-- Rollback
+-- DROP INDEX idx_events_date_id;
@@ -0,0 +1,558 @@
+package ac.nsbm.onvent.newsystem.benchmark;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import ac.nsbm.onvent.newsystem.service.SeatInventoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+
+/**
+ * Replays an on-sale booking rush through the real HTTP endpoints and writes a JSON report that can be
+ * compared between runs.
+ *
+ * The application runs on the in-memory test database, with a local SMTP sink standing in for the mail
+ * server so confirmation emails are really sent. Every virtual user signs in before the sale opens. When it
+ * opens, each user views the event and books, arriving at a seeded random moment within the ramp. The report
+ * holds throughput, latency percentiles, the mix of responses and the final seat check: tickets in the
+ * database against the capacity (oversold), refusals while seats were left (undersold), and whether the
+ * database, the event's counter, the seat ledger and the bookings the users were told about all agree.
+ *   ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.main=ac.nsbm.onvent.newsystem.benchmark.OnSaleLoadHarness -Djmh.args="users=50000 seats=5000"
+ * Options, as name=value: users (50000), seats (5000), tickets per booking (1), concurrency, the number of
+ * requests in flight at once (1000), ramp seconds over which users arrive (0, all at once), seed (42),
+ * profiles (test; add ",virtual" for virtual threads), login-attempts per user before the run fails (20)
+ * and report (target/onsale-report.json).
+ * Arguments starting with -- are passed to the application, e.g. --spring.datasource.url=... for a local PostgreSQL.
+ * The report's environment section records the profiles and the limits they run with. The default test profile
+ * uses the in-memory H2 database, the lowest bcrypt cost and no rate limits, so its numbers only compare with
+ * other test-profile runs, not with production.
+ */
+public class OnSaleLoadHarness {
+
+    private static final String PASSWORD = "OnSale123";
+    private static final Duration EMAIL_WAIT = Duration.ofSeconds(60);
+    private static final Duration LOGIN_BACKOFF = Duration.ofMillis(100);
+    private static final Duration MAX_LOGIN_BACKOFF = Duration.ofSeconds(5);
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        try (SmtpSink smtp = new SmtpSink()) {
+            List<String> applicationArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.mail.host=localhost",
+                    "--spring.mail.port=" + smtp.port(),
+                    "--onvent.notifications.poll-interval-ms=500",
+                    "--logging.level.root=WARN",
+                    "--logging.level.ac.nsbm.onvent.newsystem=ERROR"));
+            applicationArgs.addAll(options.applicationArgs);
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OnventNewApplication.class)
+                    .profiles(options.profiles)
+                    .run(applicationArgs.toArray(String[]::new))) {
+                Map<String, Object> report = run(context, smtp, options);
+                Path path = Path.of(options.report);
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+                System.out.println(new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report));
+                System.out.println("Report written to " + path.toAbsolutePath());
+            }
+        }
+    }
+
+    private static Map<String, Object> run(ConfigurableApplicationContext context, SmtpSink smtp, Options options) throws Exception {
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        long eventId = seed(context, options);
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Semaphore inFlight = new Semaphore(options.concurrency);
+        VirtualUser[] users = new VirtualUser[options.users];
+        Random random = new Random(options.seed);
+        for (int i = 0; i < users.length; i++) {
+            long arrivalNanos = options.ramp.isZero() ? 0 : (long) (random.nextDouble() * options.ramp.toNanos());
+            users[i] = new VirtualUser(http, baseUrl, inFlight, "onsale" + i, eventId, options.tickets, arrivalNanos,
+                    options.loginAttempts);
+        }
+
+        // Everyone is signed in and waiting on the event page before the sale opens
+        long loginStart = System.nanoTime();
+        runAll(users, VirtualUser::login);
+        double loginSeconds = (System.nanoTime() - loginStart) / 1e9;
+
+        long rushStart = System.nanoTime();
+        for (VirtualUser user : users) {
+            user.opensAt = rushStart + user.arrivalNanos;
+        }
+        runAll(users, VirtualUser::rush);
+        double rushSeconds = (System.nanoTime() - rushStart) / 1e9;
+
+        // Tickets the users were told they have, against what the system holds
+        Results results = new Results(users);
+        int ticketsInDatabase = context.getBean(TicketRepository.class).countActiveTicketsByEventId(eventId).intValue();
+        int eventSeatsSold = context.getBean(EventRepository.class).findById(eventId).orElseThrow().getSeatsSold();
+        int ledgerSeats = context.getBean(SeatInventoryService.class).getBookedSeats(eventId);
+        int emails = smtp.awaitMessages(results.bookings, EMAIL_WAIT);
+
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("users", options.users);
+        configuration.put("seats", options.seats);
+        configuration.put("ticketsPerBooking", options.tickets);
+        configuration.put("concurrency", options.concurrency);
+        configuration.put("rampSeconds", options.ramp.toSeconds());
+        configuration.put("seed", options.seed);
+        configuration.put("profiles", options.profiles);
+        configuration.put("loginAttempts", options.loginAttempts);
+        configuration.put("applicationArgs", options.applicationArgs);
+
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("loginSeconds", round(loginSeconds));
+        throughput.put("loginRetries", Arrays.stream(users).mapToInt(user -> user.loginAttempts - 1).sum());
+        throughput.put("rushSeconds", round(rushSeconds));
+        throughput.put("requestsPerSecond", round(results.requests / rushSeconds));
+        throughput.put("bookingsPerSecond", round(results.bookings / rushSeconds));
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("login", percentiles(users, user -> user.loginNanos));
+        latency.put("viewEvent", percentiles(users, user -> user.viewNanos));
+        latency.put("book", percentiles(users, user -> user.bookNanos));
+
+        int ticketsConfirmed = results.bookings * options.tickets;
+        Map<String, Object> seatCheck = new LinkedHashMap<>();
+        seatCheck.put("capacity", options.seats);
+        seatCheck.put("ticketsConfirmedToUsers", ticketsConfirmed);
+        seatCheck.put("ticketsInDatabase", ticketsInDatabase);
+        seatCheck.put("eventSeatsSold", eventSeatsSold);
+        seatCheck.put("seatLedger", ledgerSeats);
+        int oversold = Math.max(0, ticketsInDatabase - options.seats);
+        // Users were sent away as sold out while at least one full booking still fit
+        int undersold = results.soldOut > 0 && options.seats - ticketsInDatabase >= options.tickets
+                ? options.seats - ticketsInDatabase : 0;
+        boolean consistent = ticketsInDatabase == ticketsConfirmed && eventSeatsSold == ticketsInDatabase
+                && ledgerSeats == ticketsInDatabase;
+        seatCheck.put("oversold", oversold);
+        seatCheck.put("undersold", undersold);
+        seatCheck.put("consistent", consistent);
+        seatCheck.put("confirmationEmails", emails);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("harness", "on-sale");
+        report.put("startedAt", Instant.now().minusNanos(System.nanoTime() - loginStart).toString());
+        report.put("configuration", configuration);
+        report.put("environment", environment(context));
+        report.put("throughput", throughput);
+        report.put("latencyMillis", latency);
+        report.put("responses", results.responses);
+        report.put("seatCheck", seatCheck);
+        report.put("passed", oversold == 0 && undersold == 0 && consistent && emails == results.bookings);
+        return report;
+    }
+
+    private static long seed(ConfigurableApplicationContext context, Options options) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        EventRepository eventRepository = context.getBean(EventRepository.class);
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<User> users = new ArrayList<>(options.users);
+        for (int i = 0; i < options.users; i++) {
+            users.add(User.builder()
+                    .username("onsale" + i)
+                    .email("onsale" + i + "@example.com")
+                    .name("On-sale User " + i)
+                    .password(hash)
+                    .role(Role.USER)
+                    .build());
+        }
+        users = userRepository.saveAll(users);
+        return eventRepository.save(Event.builder()
+                .title("Stadium On-Sale")
+                .location("National Stadium")
+                .category("Music")
+                .date(LocalDateTime.now().plusDays(90))
+                .price(60.0)
+                .seats(options.seats)
+                .organizer(users.get(0))
+                .build()).getId();
+    }
+
+    /**
+     * The profiles the application ran with and the limits that shape the numbers
+     */
+    private static Map<String, Object> environment(ConfigurableApplicationContext context) {
+        Environment env = context.getEnvironment();
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("activeProfiles", env.getActiveProfiles());
+        // Without the query string, which may carry credentials
+        environment.put("database", env.getProperty("spring.datasource.url", "").split("\\?", 2)[0]);
+        environment.put("connectionPool", env.getProperty("spring.datasource.hikari.maximum-pool-size", "10"));
+        environment.put("bcryptStrength", env.getProperty("onvent.security.bcrypt.strength", "10"));
+        environment.put("passwordHashingQueue", env.getProperty("onvent.security.password-hashing.queue-capacity", "64"));
+        environment.put("rateLimitedRoutes", Binder.get(env)
+                .bind("onvent.rate-limit.routes", Bindable.mapOf(String.class, Object.class))
+                .map(Map::keySet).orElse(Set.of()));
+        environment.put("concurrencyLimit", env.getProperty("onvent.concurrency-limit.enabled", "false"));
+        if (env.acceptsProfiles(Profiles.of("test"))) {
+            environment.put("note", "test profile: in-memory H2 database, lowest bcrypt cost, no rate limits;"
+                    + " compare only with other test-profile runs");
+        }
+        return environment;
+    }
+
+    private static void runAll(VirtualUser[] users, Step step) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(users.length);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (VirtualUser user : users) {
+                executor.submit(() -> {
+                    try {
+                        step.run(user);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    private static Map<String, Object> percentiles(VirtualUser[] users, ToLongFunction<VirtualUser> latency) {
+        long[] sorted = Arrays.stream(users).mapToLong(latency).filter(nanos -> nanos > 0).sorted().toArray();
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("count", sorted.length);
+        percentiles.put("p50", percentileMillis(sorted, 0.50));
+        percentiles.put("p90", percentileMillis(sorted, 0.90));
+        percentiles.put("p99", percentileMillis(sorted, 0.99));
+        percentiles.put("p99.9", percentileMillis(sorted, 0.999));
+        percentiles.put("max", percentileMillis(sorted, 1.0));
+        return percentiles;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return round(sorted[Math.max(0, index)] / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run(VirtualUser user) throws InterruptedException;
+    }
+
+    private static final class VirtualUser {
+        private final HttpClient http;
+        private final String baseUrl;
+        private final Semaphore inFlight;
+        private final String username;
+        private final long eventId;
+        private final int tickets;
+        private final long arrivalNanos;
+        private final int maxLoginAttempts;
+        private final Map<String, Integer> responses = new LinkedHashMap<>();
+        private long opensAt;
+        private String sessionCookie;
+        private long loginNanos;
+        private int loginAttempts;
+        private long viewNanos;
+        private long bookNanos;
+        private boolean booked;
+        private boolean soldOut;
+
+        private VirtualUser(HttpClient http, String baseUrl, Semaphore inFlight, String username, long eventId,
+                            int tickets, long arrivalNanos, int maxLoginAttempts) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.inFlight = inFlight;
+            this.username = username;
+            this.eventId = eventId;
+            this.tickets = tickets;
+            this.arrivalNanos = arrivalNanos;
+            this.maxLoginAttempts = maxLoginAttempts;
+        }
+
+        private void login() throws InterruptedException {
+            String body = "{\"usernameOrEmail\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+            Duration backoff = LOGIN_BACKOFF;
+            while (sessionCookie == null) {
+                Response response = send(post("/api/v1/auth/login", body));
+                loginAttempts++;
+                if (response.status == 200) {
+                    loginNanos = response.successNanos();
+                    sessionCookie = response.cookie;
+                    continue;
+                }
+                // Sign-ins beyond the hashing queue are shed (503) and rate-limited ones refused (429);
+                // anything else will not succeed by asking again
+                boolean retryable = response.status == 503 || response.status == 429 || response.status == -1;
+                if (!retryable || loginAttempts >= maxLoginAttempts) {
+                    throw new IllegalStateException("Sign-in failed for " + username + " after " + loginAttempts
+                            + " attempt(s), last response " + response.outcome() + ": " + response.body
+                            + (response.status == 429 ? " (the active profiles rate-limit sign-ins)" : ""));
+                }
+                // Full jitter so shed users do not all come back at once
+                Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(backoff.toNanos()) + 1));
+                backoff = Duration.ofNanos(Math.min(backoff.toNanos() * 2, MAX_LOGIN_BACKOFF.toNanos()));
+            }
+        }
+
+        private void rush() throws InterruptedException {
+            long wait = opensAt - System.nanoTime();
+            if (wait > 0) {
+                Thread.sleep(Duration.ofNanos(wait));
+            }
+            Response view = send(request("/api/v1/events/" + eventId).GET().build());
+            viewNanos = view.successNanos();
+            count("view " + view.outcome());
+            Response book = send(post("/api/v1/tickets/book",
+                    "{\"eventId\":" + eventId + ",\"numberOfTickets\":" + tickets + "}"));
+            bookNanos = book.successNanos();
+            booked = book.status == 201;
+            soldOut = book.outcome().equals("sold-out");
+            count("book " + book.outcome());
+        }
+
+        private void count(String outcome) {
+            responses.merge(outcome, 1, Integer::sum);
+        }
+
+        private Response send(HttpRequest request) throws InterruptedException {
+            inFlight.acquire();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                String cookie = response.headers().firstValue("Set-Cookie").map(value -> value.split(";", 2)[0]).orElse(null);
+                return new Response(response.statusCode(), response.body(), cookie, System.nanoTime() - start);
+            } catch (IOException e) {
+                return new Response(-1, e.getClass().getSimpleName(), null, System.nanoTime() - start);
+            } finally {
+                inFlight.release();
+            }
+        }
+
+        private HttpRequest post(String path, String json) {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60));
+            return sessionCookie == null ? builder : builder.header("Cookie", sessionCookie);
+        }
+    }
+
+    private record Response(int status, String body, String cookie, long nanos) {
+
+        private String outcome() {
+            if (status == -1) {
+                return "io-error";
+            }
+            if (status >= 400 && body != null && body.contains("Insufficient seats")) {
+                return "sold-out";
+            }
+            return String.valueOf(status);
+        }
+
+        // Only successful responses count towards latency
+        private long successNanos() {
+            return status >= 200 && status < 300 ? nanos : 0;
+        }
+    }
+
+    private static final class Results {
+        private final Map<String, Integer> responses = new LinkedHashMap<>();
+        private int requests;
+        private int bookings;
+        private int soldOut;
+
+        private Results(VirtualUser[] users) {
+            for (VirtualUser user : users) {
+                user.responses.forEach((outcome, count) -> responses.merge(outcome, count, Integer::sum));
+                requests += 2;
+                bookings += user.booked ? 1 : 0;
+                soldOut += user.soldOut ? 1 : 0;
+            }
+        }
+    }
+
+    private static final class Options {
+        private int users = 50_000;
+        private int seats = 5_000;
+        private int tickets = 1;
+        private int concurrency = 1_000;
+        private Duration ramp = Duration.ZERO;
+        private long seed = 42;
+        private String[] profiles = {"test"};
+        private int loginAttempts = 20;
+        private String report = "target/onsale-report.json";
+        private final List<String> applicationArgs = new ArrayList<>();
+
+        private static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (arg.startsWith("--")) {
+                    options.applicationArgs.add(arg);
+                    continue;
+                }
+                String[] option = arg.split("=", 2);
+                if (option.length != 2) {
+                    throw new IllegalArgumentException("Expected name=value, got " + arg);
+                }
+                switch (option[0]) {
+                    case "users" -> options.users = Integer.parseInt(option[1]);
+                    case "seats" -> options.seats = Integer.parseInt(option[1]);
+                    case "tickets" -> options.tickets = Integer.parseInt(option[1]);
+                    case "concurrency" -> options.concurrency = Integer.parseInt(option[1]);
+                    case "ramp" -> options.ramp = Duration.ofSeconds(Long.parseLong(option[1]));
+                    case "seed" -> options.seed = Long.parseLong(option[1]);
+                    case "profiles" -> options.profiles = option[1].split(",");
+                    case "login-attempts" -> options.loginAttempts = Integer.parseInt(option[1]);
+                    case "report" -> options.report = option[1];
+                    default -> throw new IllegalArgumentException("Unknown option " + option[0]);
+                }
+            }
+            return options;
+        }
+    }
+
+    /**
+     * Minimal SMTP server that accepts every message and counts it, standing in for the mail server
+     */
+    private static final class SmtpSink implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final AtomicInteger messages = new AtomicInteger();
+        private final Map<Socket, Boolean> connections = new ConcurrentHashMap<>();
+
+        private SmtpSink() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread.ofVirtual().name("smtp-sink").start(this::accept);
+        }
+
+        private int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private int awaitMessages(int expected, Duration timeout) throws InterruptedException {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (messages.get() < expected && System.nanoTime() < deadline) {
+                Thread.sleep(200);
+            }
+            return messages.get();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.put(socket, Boolean.TRUE);
+                    Thread.ofVirtual().start(() -> serve(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost SMTP sink");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO", "HELO" -> reply(out, "250 localhost");
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                // Discard the message body
+                            }
+                            messages.incrementAndGet();
+                            reply(out, "250 OK");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // Connection closed by the client
+            } finally {
+                connections.remove(socket);
+            }
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            for (Socket socket : connections.keySet()) {
+                socket.close();
+            }
+        }
+    }
+}
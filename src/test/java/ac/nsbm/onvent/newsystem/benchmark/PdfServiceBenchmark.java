@@ -0,0 +1,62 @@
+package ac.nsbm.onvent.newsystem.benchmark;
+
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.service.PdfService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tickets per second of the full layout render versus stamping a cached event template.
+ * Run with -prof gc to compare allocation per ticket (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfServiceBenchmark {
+
+    private PdfService pdfService;
+    private BookingResponse[] bookings;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        pdfService = new PdfService();
+        bookings = new BookingResponse[1024];
+        for (int i = 0; i < bookings.length; i++) {
+            bookings[i] = new BookingResponse((long) i, String.format("TKT-%08X", i), (long) i, "Attendee " + i,
+                    1L, "Colombo Music Festival", "Galle Face Green", LocalDateTime.of(2030, 3, 1, 18, 0), 25.0,
+                    LocalDateTime.of(2030, 1, 15, 9, 30), "ACTIVE", 20000 - i);
+        }
+        // Render the event template once so the template benchmark measures stamping only
+        pdfService.generateTicketPdfFromTemplate(bookings[0]);
+    }
+
+    @Benchmark
+    public byte[] fullLayout() {
+        return pdfService.generateTicketPdf(nextBooking());
+    }
+
+    @Benchmark
+    public byte[] stampedTemplate() {
+        return pdfService.generateTicketPdfFromTemplate(nextBooking());
+    }
+
+    private BookingResponse nextBooking() {
+        next = (next + 1) & (bookings.length - 1);
+        return bookings[next];
+    }
+}
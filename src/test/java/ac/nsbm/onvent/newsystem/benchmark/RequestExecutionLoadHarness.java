@@ -0,0 +1,227 @@
+package ac.nsbm.onvent.newsystem.benchmark;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load against the platform-thread setup and then the "virtual" profile, on the in-memory
+ * test database. Each client signs in as its own user and loops: list events, open an event and, every fourth
+ * round, book a ticket. Prints throughput, p50/p99 latency and requests shed with 503 for each setup.
+ *   ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.main=ac.nsbm.onvent.newsystem.benchmark.RequestExecutionLoadHarness -Djmh.args="400 30"
+ * Arguments: concurrent clients (default 400) and measured seconds (default 20), after a 5 second warm-up.
+ */
+public class RequestExecutionLoadHarness {
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final String PASSWORD = "LoadTest123";
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+
+        List<Result> results = new ArrayList<>();
+        results.add(run("platform", clients, duration, "test"));
+        results.add(run("virtual", clients, duration, "test", "virtual"));
+
+        System.out.printf("%n%-10s %8s %10s %10s %8s %8s %8s %8s%n",
+                "setup", "clients", "requests", "req/s", "p50 ms", "p99 ms", "503", "errors");
+        for (Result result : results) {
+            System.out.printf("%-10s %8d %10d %10.1f %8.1f %8.1f %8d %8d%n",
+                    result.setup, clients, result.latenciesNanos.length, result.latenciesNanos.length / (double) duration.toSeconds(),
+                    result.percentileMillis(0.50), result.percentileMillis(0.99), result.busy, result.errors);
+        }
+    }
+
+    private static Result run(String setup, int clients, Duration duration, String... profiles) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OnventNewApplication.class)
+                .profiles(profiles)
+                .run("--server.port=0", "--logging.level.root=WARN", "--logging.level.ac.nsbm.onvent.newsystem=ERROR")) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            long eventId = seed(context, clients);
+
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            long warmupEnd = System.nanoTime() + WARMUP.toNanos();
+            long end = warmupEnd + duration.toNanos();
+
+            // Client threads are virtual too, so the load generator is never what limits concurrency
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<Client>> futures = new ArrayList<>();
+                for (int i = 0; i < clients; i++) {
+                    Client client = new Client(http, baseUrl, "load" + i, eventId);
+                    futures.add(executor.submit(() -> client.run(warmupEnd, end)));
+                }
+                Result result = new Result(setup);
+                for (Future<Client> future : futures) {
+                    result.add(future.get());
+                }
+                return result.done();
+            }
+        }
+    }
+
+    private static long seed(ConfigurableApplicationContext context, int clients) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        EventRepository eventRepository = context.getBean(EventRepository.class);
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            users.add(User.builder()
+                    .username("load" + i)
+                    .email("load" + i + "@example.com")
+                    .name("Load Client " + i)
+                    .password(hash)
+                    .role(Role.USER)
+                    .build());
+        }
+        users = userRepository.saveAll(users);
+        for (int i = 0; i < 50; i++) {
+            eventRepository.save(Event.builder()
+                    .title("Load Test Event " + i)
+                    .location("Main Hall")
+                    .date(LocalDateTime.now().plusDays(30 + i))
+                    .price(25.0)
+                    .seats(1_000_000)
+                    .organizer(users.get(0))
+                    .build());
+        }
+        return eventRepository.findAll().get(0).getId();
+    }
+
+    private static final class Client {
+        private final HttpClient http;
+        private final String baseUrl;
+        private final String username;
+        private final long eventId;
+        private final List<Long> latenciesNanos = new ArrayList<>();
+        private String sessionCookie;
+        private int busy;
+        private int errors;
+
+        private Client(HttpClient http, String baseUrl, String username, long eventId) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.username = username;
+            this.eventId = eventId;
+        }
+
+        private Client run(long warmupEnd, long end) throws InterruptedException {
+            login();
+            for (int round = 0; System.nanoTime() < end; round++) {
+                send(get("/api/v1/events?page=0&size=10"), warmupEnd);
+                send(get("/api/v1/events/" + eventId), warmupEnd);
+                if (round % 4 == 0) {
+                    send(post("/api/v1/tickets/book", "{\"eventId\":" + eventId + ",\"numberOfTickets\":1}"), warmupEnd);
+                }
+            }
+            return this;
+        }
+
+        private void login() throws InterruptedException {
+            String body = "{\"usernameOrEmail\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}";
+            while (sessionCookie == null) {
+                try {
+                    HttpResponse<Void> response = http.send(post("/api/v1/auth/login", body), HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        sessionCookie = response.headers().firstValue("Set-Cookie").orElseThrow().split(";", 2)[0];
+                    } else {
+                        // Sign-ins beyond the hashing queue are shed; back off and try again
+                        Thread.sleep(100);
+                    }
+                } catch (IOException e) {
+                    Thread.sleep(100);
+                }
+            }
+        }
+
+        private void send(HttpRequest request, long warmupEnd) {
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                status = -1;
+            }
+            long elapsed = System.nanoTime() - start;
+            if (start < warmupEnd) {
+                return;
+            }
+            if (status == 503) {
+                busy++;
+            } else if (status < 200 || status >= 300) {
+                errors++;
+            } else {
+                latenciesNanos.add(elapsed);
+            }
+        }
+
+        private HttpRequest get(String path) {
+            return request(path).GET().build();
+        }
+
+        private HttpRequest post(String path, String json) {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json))
+                    .build();
+        }
+
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+            return sessionCookie == null ? builder : builder.header("Cookie", sessionCookie);
+        }
+    }
+
+    private static final class Result {
+        private final String setup;
+        private final List<Long> collected = new ArrayList<>();
+        private long[] latenciesNanos;
+        private int busy;
+        private int errors;
+
+        private Result(String setup) {
+            this.setup = setup;
+        }
+
+        private void add(Client client) {
+            collected.addAll(client.latenciesNanos);
+            busy += client.busy;
+            errors += client.errors;
+        }
+
+        private Result done() {
+            latenciesNanos = collected.stream().mapToLong(Long::longValue).sorted().toArray();
+            return this;
+        }
+
+        private double percentileMillis(double percentile) {
+            if (latenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package ac.nsbm.onvent.newsystem.benchmark;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.dto.AvailabilityResponse;
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.dto.EventDTO;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import ac.nsbm.onvent.newsystem.service.EmailService;
+import ac.nsbm.onvent.newsystem.service.EventService;
+import ac.nsbm.onvent.newsystem.service.PdfService;
+import ac.nsbm.onvent.newsystem.service.TicketService;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline of the service hot paths on the in-memory test database, seeded with {@value #USERS} users,
+ * {@value #EVENTS} events and {@value #BOOKINGS} bookings of one to four tickets. Reports throughput and
+ * sampled latency percentiles; -prof gc (the profile default) adds the allocation rate per operation.
+ *   ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="\\.ServiceBenchmark -prof gc"
+ * Booking benchmarks add tickets to one large event, so the ticket table grows while they run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+
+    static final int USERS = 2_000;
+    static final int EVENTS = 1_000;
+    static final int BOOKINGS = 10_000;
+    private static final String[] CATEGORIES = {"Music", "Sports", "Theatre", "Conference", "Workshop"};
+    private static final String[] SEARCH_TERMS = {"Festival", "Cup", "Night", "Summit", "Live"};
+    private static final Pageable EVENT_PAGE = PageRequest.of(0, 20, Sort.by("date").ascending());
+    // The bookings query has its own order, newest first
+    private static final Pageable BOOKING_PAGE = PageRequest.of(0, 20);
+
+    private ConfigurableApplicationContext context;
+    private TicketService ticketService;
+    private EventService eventService;
+    private EmailService emailService;
+    private PdfService pdfService;
+
+    private long[] userIds;
+    private long[] eventIds;
+    private long onSaleEventId;
+    private BookingResponse sampleBooking;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Quiet logs and no outbox drain competing with the measured code
+        context = new SpringApplicationBuilder(OnventNewApplication.class)
+                .profiles("test")
+                .run("--spring.main.web-application-type=none",
+                        "--onvent.notifications.poll-interval-ms=3600000",
+                        "--logging.level.root=WARN",
+                        "--logging.level.ac.nsbm.onvent.newsystem=ERROR");
+        ticketService = context.getBean(TicketService.class);
+        eventService = context.getBean(EventService.class);
+        emailService = context.getBean(EmailService.class);
+        pdfService = context.getBean(PdfService.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookingResponse bookTicket() {
+        BookingRequest request = new BookingRequest();
+        request.setUserId(userIds[nextIndex(userIds.length)]);
+        request.setEventId(onSaleEventId);
+        request.setNumberOfTickets(1);
+        return ticketService.bookTicket(request);
+    }
+
+    @Benchmark
+    public AvailabilityResponse checkAvailability() {
+        return ticketService.checkAvailability(eventIds[nextIndex(eventIds.length)]);
+    }
+
+    @Benchmark
+    public Page<BookingResponse> getUserBookings() {
+        return ticketService.getUserBookings(userIds[nextIndex(userIds.length)], BOOKING_PAGE);
+    }
+
+    @Benchmark
+    public Page<EventDTO> searchEvents() {
+        int index = nextIndex(SEARCH_TERMS.length * CATEGORIES.length);
+        return eventService.searchEvents(SEARCH_TERMS[index % SEARCH_TERMS.length],
+                CATEGORIES[index / SEARCH_TERMS.length], null, EVENT_PAGE);
+    }
+
+    @Benchmark
+    public byte[] generateTicketPdf() {
+        return pdfService.generateTicketPdf(sampleBooking);
+    }
+
+    @Benchmark
+    public MimeMessage buildConfirmationEmail() throws MessagingException {
+        return emailService.createBookingConfirmation(sampleBooking, "attendee@example.com");
+    }
+
+    private int nextIndex(int bound) {
+        next = (next + 1) & Integer.MAX_VALUE;
+        return next % bound;
+    }
+
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        EventRepository eventRepository = context.getBean(EventRepository.class);
+        Random random = new Random(42);
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder()
+                    .username("bench" + i)
+                    .email("bench" + i + "@example.com")
+                    .name("Benchmark User " + i)
+                    .password("not-a-real-hash")
+                    .role(i == 0 ? Role.ADMIN : Role.USER)
+                    .build());
+        }
+        users = userRepository.saveAll(users);
+        userIds = users.stream().mapToLong(User::getId).toArray();
+
+        List<Event> events = new ArrayList<>(EVENTS + 1);
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(Event.builder()
+                    .title(SEARCH_TERMS[i % SEARCH_TERMS.length] + " " + CATEGORIES[i % CATEGORIES.length] + " " + i)
+                    .description("Seeded event " + i + " for the service benchmarks")
+                    .location("Venue " + (i % 40))
+                    .category(CATEGORIES[i % CATEGORIES.length])
+                    .date(LocalDateTime.now().plusDays(1 + random.nextInt(365)))
+                    .price(10.0 + random.nextInt(90))
+                    .seats(100 + random.nextInt(900))
+                    .organizer(users.get(0))
+                    .build());
+        }
+        events.add(Event.builder()
+                .title("Stadium On-Sale")
+                .location("National Stadium")
+                .category("Music")
+                .date(LocalDateTime.now().plusDays(90))
+                .price(60.0)
+                .seats(10_000_000)
+                .organizer(users.get(0))
+                .build());
+        events = eventRepository.saveAll(events);
+        eventIds = events.subList(0, EVENTS).stream().mapToLong(Event::getId).toArray();
+        onSaleEventId = events.get(EVENTS).getId();
+
+        // Bookings go through the service so the seat ledger, sales rollup and outbox match the tickets
+        for (int i = 0; i < BOOKINGS; i++) {
+            BookingRequest request = new BookingRequest();
+            request.setUserId(userIds[random.nextInt(userIds.length)]);
+            request.setEventId(eventIds[random.nextInt(eventIds.length)]);
+            request.setNumberOfTickets(1 + random.nextInt(4));
+            try {
+                BookingResponse booking = ticketService.bookTicket(request);
+                if (sampleBooking == null) {
+                    sampleBooking = booking;
+                }
+            } catch (RuntimeException e) {
+                // A sold-out event; realistic, skip it
+            }
+        }
+    }
+}
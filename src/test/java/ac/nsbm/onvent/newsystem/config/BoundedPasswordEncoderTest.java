@@ -0,0 +1,90 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import ac.nsbm.onvent.newsystem.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void testEncodeAndMatches_DelegatedToThePool() {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, new SimpleMeterRegistry());
+
+        // Act
+        String hash = encoder.encode("Secret123");
+
+        // Assert
+        assertTrue(encoder.matches("Secret123", hash));
+        assertFalse(encoder.matches("Wrong123", hash));
+    }
+
+    @Test
+    void testMatches_RefusedWhenPoolAndQueueAreFull() throws Exception {
+        // Arrange - one hash running, one waiting in a queue of one
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(started, release), 1, 1, meterRegistry);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "b"));
+        waitUntilQueued(meterRegistry);
+
+        // Act & Assert
+        assertThrows(ServiceBusyException.class, () -> encoder.matches("c", "c"));
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private void waitUntilQueued(SimpleMeterRegistry meterRegistry) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value() < 1) {
+            assertTrue(System.nanoTime() < deadline, "Second hash was never queued");
+            Thread.sleep(5);
+        }
+    }
+
+    private static final class BlockingEncoder implements PasswordEncoder {
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        private BlockingEncoder(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS) && rawPassword.toString().equals(encodedPassword);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50), meterRegistry);
+
+    @Test
+    void testDoFilter_RefusesWhenEveryPermitIsHeld() throws Exception {
+        // Arrange - one request holds the only permit
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> filter((request, response) -> {
+            entered.countDown();
+            await(release);
+        }));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // Act
+        MockHttpServletResponse refused = filter((request, response) -> fail("Should not run"));
+        release.countDown();
+
+        // Assert
+        assertEquals(503, refused.getStatus());
+        assertEquals("1", refused.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, first.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1.0, meterRegistry.get("request.concurrency.rejected").counter().count());
+        assertEquals(0.0, meterRegistry.get("request.concurrency.active").gauge().value());
+    }
+
+    @Test
+    void testDoFilter_PermitReleasedWhenTheRequestFails() {
+        // Arrange
+        assertThrows(IllegalStateException.class, () -> filter((request, response) -> {
+            throw new IllegalStateException("Boom");
+        }));
+
+        // Act
+        MockHttpServletResponse response = filter((request, res) -> { });
+
+        // Assert
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void testDoFilter_ActuatorIsNeverLimited() throws Exception {
+        // Arrange
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> busy = CompletableFuture.supplyAsync(() -> filter((request, response) -> {
+            entered.countDown();
+            await(release);
+        }));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // Act
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> { });
+        release.countDown();
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        busy.get(5, TimeUnit.SECONDS);
+    }
+
+    private MockHttpServletResponse filter(FilterChain chain) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/events"), response, chain);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.service.EmailService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class TaskExecutionTest {
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @MockBean
+    private EmailService emailService;
+
+    @Test
+    void testStreamedResponses_RunOnTheBoundedApplicationExecutor() {
+        // Act
+        Object mvcExecutor = ReflectionTestUtils.getField(handlerAdapter, "taskExecutor");
+
+        // Assert - not MVC's fallback, which starts a new thread per request
+        assertInstanceOf(ThreadPoolTaskExecutor.class, applicationTaskExecutor);
+        assertSame(applicationTaskExecutor, mvcExecutor);
+    }
+}
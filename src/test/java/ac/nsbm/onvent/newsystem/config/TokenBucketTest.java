@@ -0,0 +1,80 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testTryConsume_AllowsABurstUpToCapacity() {
+        // Arrange - 5 tokens, one more every 12 seconds
+        TokenBucket bucket = new TokenBucket(5, Duration.ofMinutes(1), 0);
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryConsume(0));
+        }
+        assertEquals(12 * SECOND, bucket.tryConsume(0));
+    }
+
+    @Test
+    void testTryConsume_RefillsOverTime() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(5, Duration.ofMinutes(1), 0);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryConsume(0);
+        }
+
+        // Act & Assert
+        assertEquals(2 * SECOND, bucket.tryConsume(10 * SECOND));
+        assertEquals(0, bucket.tryConsume(12 * SECOND));
+        assertTrue(bucket.tryConsume(12 * SECOND) > 0);
+    }
+
+    @Test
+    void testTryConsume_IdleBucketDoesNotExceedCapacity() {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), 0);
+
+        // Act - an hour idle still only allows one burst
+        long hourLater = TimeUnit.HOURS.toNanos(1);
+        int allowed = 0;
+        while (bucket.tryConsume(hourLater) == 0) {
+            allowed++;
+        }
+
+        // Assert
+        assertEquals(3, allowed);
+    }
+
+    @Test
+    void testTryConsume_ConcurrentCallersNeverExceedCapacity() throws Exception {
+        // Arrange
+        TokenBucket bucket = new TokenBucket(100, Duration.ofHours(1), 0);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                if (bucket.tryConsume(0) == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(100, allowed.get());
+    }
+}
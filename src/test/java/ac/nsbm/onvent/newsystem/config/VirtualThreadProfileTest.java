@@ -0,0 +1,53 @@
+package ac.nsbm.onvent.newsystem.config;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.service.EmailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles({"test", "virtual"})
+class VirtualThreadProfileTest {
+
+    @Autowired
+    @Qualifier("notificationExecutor")
+    private ThreadPoolTaskExecutor notificationExecutor;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private EmailService emailService;
+
+    @Test
+    void testVirtualProfile_WorkersRunOnVirtualThreads() throws Exception {
+        // Act
+        boolean notificationWorker = notificationExecutor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS);
+        boolean asyncWorker = applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(notificationWorker);
+        assertTrue(asyncWorker);
+    }
+
+    @Test
+    void testVirtualProfile_ConcurrencyLimitIsInstalled() {
+        // Act & Assert - registered when the security filter chain builds the filter
+        assertEquals(0.0, meterRegistry.get("request.concurrency.active").gauge().value());
+    }
+}
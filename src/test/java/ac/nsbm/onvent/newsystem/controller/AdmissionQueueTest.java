@@ -0,0 +1,219 @@
+package ac.nsbm.onvent.newsystem.controller;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import ac.nsbm.onvent.newsystem.service.AdmissionQueueService;
+import ac.nsbm.onvent.newsystem.service.EmailService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Admissions are triggered by the test instead of the scheduler
+@SpringBootTest(classes = OnventNewApplication.class, properties = "onvent.admission.tick-ms=3600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdmissionQueueTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionQueueService admissionQueueService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User admin;
+    private User fan;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.save(User.builder()
+                .username("queueadmin")
+                .email("queueadmin@example.com")
+                .name("Queue Admin")
+                .password("encodedPassword")
+                .role(Role.ADMIN)
+                .build());
+        fan = userRepository.save(User.builder()
+                .username("queuefan")
+                .email("queuefan@example.com")
+                .name("Queue Fan")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+        event = eventRepository.save(Event.builder()
+                .title("Stadium Tour")
+                .location("National Stadium")
+                .date(LocalDateTime.now().plusDays(60))
+                .price(80.0)
+                .seats(100)
+                .organizer(admin)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        admissionQueueService.closeQueue(event.getId());
+        ticketRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testBooking_QueuedOnSaleOnlyAdmitsUsersWithAPass() throws Exception {
+        // Arrange
+        mockMvc.perform(put("/api/v1/tickets/admin/queue/{eventId}", event.getId()).param("admitPerSecond", "1000").with(as(admin)))
+                .andExpect(status().isOk());
+
+        // Act & Assert - join and wait
+        JsonNode joined = readJson(mockMvc.perform(post("/api/v1/tickets/queue/{eventId}", event.getId()).with(as(fan)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("WAITING"))
+                .andExpect(jsonPath("$.position").value(1))
+                .andReturn().getResponse().getContentAsString());
+        String token = joined.get("token").asText();
+        mockMvc.perform(book(token)).andExpect(status().isForbidden());
+
+        // Admitted on the next tick
+        Thread.sleep(20);
+        admissionQueueService.admitWaiting();
+        mockMvc.perform(get("/api/v1/tickets/queue/{eventId}", event.getId()).param("token", token).with(as(fan)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ADMITTED"))
+                .andExpect(jsonPath("$.admittedUntil").exists());
+
+        // One booking per pass
+        mockMvc.perform(book(token)).andExpect(status().isCreated());
+        mockMvc.perform(book(token)).andExpect(status().isForbidden());
+        assertEquals(1, ticketRepository.countActiveTicketsByEventId(event.getId()));
+    }
+
+    @Test
+    void testBooking_TwoConcurrentRequestsWithOnePassBookOnce() throws Exception {
+        // Arrange
+        String token = admittedToken();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            statuses.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(book(token)).andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+        List<Integer> results = new ArrayList<>();
+        for (Future<Integer> status : statuses) {
+            results.add(status.get());
+        }
+        executor.shutdown();
+
+        // Assert
+        assertTrue(results.contains(201), results.toString());
+        assertTrue(results.contains(403), results.toString());
+        assertEquals(1, ticketRepository.countActiveTicketsByEventId(event.getId()));
+    }
+
+    @Test
+    void testBooking_FailedBookingKeepsThePass() throws Exception {
+        // Arrange
+        String token = admittedToken();
+
+        // Act & Assert - more seats than the event has, then a booking that fits
+        mockMvc.perform(book(token, 101)).andExpect(status().is4xxClientError());
+        mockMvc.perform(book(token)).andExpect(status().isCreated());
+        mockMvc.perform(book(token)).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testBooking_EventWithoutAQueueIsBookedDirectly() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/tickets/queue/{eventId}", event.getId()).with(as(fan)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("NO_QUEUE"));
+        mockMvc.perform(book(null)).andExpect(status().isCreated());
+    }
+
+    @Test
+    void testOpenQueue_AdminOnly() throws Exception {
+        // Act & Assert
+        mockMvc.perform(put("/api/v1/tickets/admin/queue/{eventId}", event.getId()).param("admitPerSecond", "10").with(as(fan)))
+                .andExpect(status().isForbidden());
+    }
+
+    private String admittedToken() throws Exception {
+        admissionQueueService.openQueue(event.getId(), 1000);
+        String token = admissionQueueService.join(event.getId(), fan.getId()).getToken();
+        Thread.sleep(20);
+        admissionQueueService.admitWaiting();
+        return token;
+    }
+
+    private MockHttpServletRequestBuilder book(String token) {
+        return book(token, 1);
+    }
+
+    private MockHttpServletRequestBuilder book(String token, int tickets) {
+        String queueToken = token == null ? "null" : "\"" + token + "\"";
+        return post("/api/v1/tickets/book")
+                .with(as(fan))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"eventId\":" + event.getId() + ",\"numberOfTickets\":" + tickets + ",\"queueToken\":" + queueToken + "}");
+    }
+
+    private RequestPostProcessor as(User user) {
+        UserPrincipal principal = UserPrincipal.from(user);
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    private JsonNode readJson(String content) throws Exception {
+        return objectMapper.readTree(content);
+    }
+}
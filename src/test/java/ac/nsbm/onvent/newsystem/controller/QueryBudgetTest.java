@@ -0,0 +1,232 @@
+package ac.nsbm.onvent.newsystem.controller;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.QueryBudgetProperties;
+import ac.nsbm.onvent.newsystem.config.QueryCounter;
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.TicketType;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.EventSalesRollupRepository;
+import ac.nsbm.onvent.newsystem.repository.NotificationOutboxRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketTypeRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import ac.nsbm.onvent.newsystem.service.EmailService;
+import ac.nsbm.onvent.newsystem.service.TicketService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Each endpoint is held to the budget of its route in query-budgets.properties; the data has enough organizers,
+// events, ticket types and tickets that a lazy load per row would blow the budget.
+// The default budget is 0 here, so any request without a route of its own counts as over budget.
+@SpringBootTest(classes = OnventNewApplication.class, properties = {
+        "onvent.query-budget.enabled=true",
+        "onvent.query-budget.max-statements=0"})
+@TestPropertySource(locations = "classpath:query-budgets.properties")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    private static final int EVENTS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private QueryBudgetProperties queryBudgetProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private EventSalesRollupRepository eventSalesRollupRepository;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User admin;
+    private User fan;
+    private List<Event> events;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.save(User.builder()
+                .username("budgetadmin")
+                .email("budgetadmin@example.com")
+                .name("Budget Admin")
+                .password("encodedPassword")
+                .role(Role.ADMIN)
+                .build());
+        fan = userRepository.save(User.builder()
+                .username("budgetfan")
+                .email("budgetfan@example.com")
+                .name("Budget Fan")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+        events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            User organizer = userRepository.save(User.builder()
+                    .username("organizer" + i)
+                    .email("organizer" + i + "@example.com")
+                    .name("Organizer " + i)
+                    .password("encodedPassword")
+                    .role(Role.USER)
+                    .build());
+            Event event = eventRepository.save(Event.builder()
+                    .title("Budget Event " + i)
+                    .location("Hall " + i)
+                    .category("Music")
+                    .date(LocalDateTime.now().plusDays(10 + i))
+                    .price(20.0)
+                    .seats(100)
+                    .organizer(organizer)
+                    .build());
+            TicketType standard = new TicketType("Standard", 25.0, 50);
+            standard.setEvent(event);
+            standard = ticketTypeRepository.save(standard);
+            ticketService.bookTicket(booking(event, i % 2 == 0 ? standard.getId() : null, 2));
+            events.add(event);
+        }
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        eventSalesRollupRepository.deleteAll();
+        notificationOutboxRepository.deleteAll();
+        ticketTypeRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // A full page, so the total is counted too
+    @Test
+    void testEventPage_WithinBudget() throws Exception {
+        assertWithinBudget("event-page", get("/api/v1/events").param("size", "10"));
+    }
+
+    @Test
+    void testEventSearch_WithinBudget() throws Exception {
+        assertWithinBudget("event-search", get("/api/v1/events/search").param("category", "Music").param("size", "10"));
+    }
+
+    @Test
+    void testEventById_WithinBudget() throws Exception {
+        assertWithinBudget("event-by-id", get("/api/v1/events/{id}", events.get(3).getId()));
+    }
+
+    @Test
+    void testUserBookings_WithinBudget() throws Exception {
+        assertWithinBudget("user-bookings", get("/api/v1/tickets/user").with(as(fan)));
+    }
+
+    @Test
+    void testDashboardStats_WithinBudget() throws Exception {
+        assertWithinBudget("dashboard-stats", get("/api/v1/tickets/admin/stats").with(as(admin)));
+    }
+
+    // Runs the real notification path, so the confirmation email's outbox insert is counted
+    @Test
+    void testBooking_WithinBudget() throws Exception {
+        assertWithinBudget("booking", post("/api/v1/tickets/book")
+                .with(as(fan))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"eventId\":" + events.get(5).getId() + ",\"numberOfTickets\":3}"));
+    }
+
+    @Test
+    void testRequestOverBudget_CountedByTheFilter() throws Exception {
+        // Arrange
+        double exceeded = meterRegistry.get("query.budget.exceeded").tag("route", "default").counter().count();
+
+        // Act - no route covers this endpoint, so it gets the default budget of 0
+        mockMvc.perform(get("/api/v1/tickets/event/{eventId}/stats", events.get(0).getId()).with(as(fan)))
+                .andExpect(status().isOk());
+
+        // Assert
+        assertEquals(exceeded + 1, meterRegistry.get("query.budget.exceeded").tag("route", "default").counter().count());
+    }
+
+    private void assertWithinBudget(String route, MockHttpServletRequestBuilder request) throws Exception {
+        QueryBudgetProperties.Route budget = queryBudgetProperties.getRoutes().get(route);
+        assertNotNull(budget, "No budget configured for route " + route);
+        try (QueryCounter.Recording recording = queryCounter.start()) {
+            MockHttpServletRequest sent = mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn().getRequest();
+            assertTrue(budget.getMethod().equalsIgnoreCase(sent.getMethod())
+                            && PathPatternParser.defaultInstance.parse(budget.getPattern()).matches(PathContainer.parsePath(sent.getRequestURI())),
+                    () -> sent.getMethod() + " " + sent.getRequestURI() + " is not covered by route " + route);
+            assertTrue(recording.count() <= budget.getMaxStatements(),
+                    () -> "Over the " + route + " budget of " + budget.getMaxStatements() + " with " + recording.describe());
+        }
+    }
+
+    private BookingRequest booking(Event event, Long ticketTypeId, int seats) {
+        BookingRequest request = new BookingRequest();
+        request.setUserId(fan.getId());
+        request.setEventId(event.getId());
+        request.setTicketTypeId(ticketTypeId);
+        request.setNumberOfTickets(seats);
+        return request;
+    }
+
+    private RequestPostProcessor as(User user) {
+        UserPrincipal principal = UserPrincipal.from(user);
+        return authentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+}
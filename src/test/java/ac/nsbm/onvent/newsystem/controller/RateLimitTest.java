@@ -0,0 +1,89 @@
+package ac.nsbm.onvent.newsystem.controller;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.service.EmailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = OnventNewApplication.class, properties = {
+        "onvent.rate-limit.routes.login.method=POST",
+        "onvent.rate-limit.routes.login.pattern=/api/v1/auth/login",
+        "onvent.rate-limit.routes.login.limit=2",
+        "onvent.rate-limit.routes.login.period=1m",
+        "onvent.rate-limit.routes.login.key=ip",
+        "onvent.rate-limit.routes.booking.method=POST",
+        "onvent.rate-limit.routes.booking.pattern=/api/v1/tickets/book",
+        "onvent.rate-limit.routes.booking.limit=1",
+        "onvent.rate-limit.routes.booking.period=1m",
+        "onvent.rate-limit.routes.booking.key=user"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private EmailService emailService;
+
+    @Test
+    void testLogin_LimitedPerClientIp() throws Exception {
+        // Act & Assert
+        mockMvc.perform(login("10.0.0.1")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login("10.0.0.1")).andExpect(status().isUnauthorized());
+        mockMvc.perform(login("10.0.0.1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"))
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(login("10.0.0.2")).andExpect(status().isUnauthorized());
+
+        assertEquals(1.0, meterRegistry.get("rate.limit.rejected").tag("route", "login").counter().count());
+    }
+
+    @Test
+    void testBooking_LimitedPerUserNotPerIp() throws Exception {
+        // Act & Assert - both users share an IP
+        mockMvc.perform(book(7L)).andExpect(status().isBadRequest());
+        mockMvc.perform(book(7L)).andExpect(status().isTooManyRequests());
+        mockMvc.perform(book(8L)).andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletRequestBuilder login(String clientIp) {
+        return post("/api/v1/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(clientIp);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"usernameOrEmail\":\"nobody\",\"password\":\"Wrong123\"}");
+    }
+
+    private MockHttpServletRequestBuilder book(Long userId) {
+        UserPrincipal user = UserPrincipal.of(userId, "booker" + userId, "Booker", "booker" + userId + "@example.com", Role.USER);
+        return post("/api/v1/tickets/book")
+                .with(authentication(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities())))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"eventId\":999999,\"numberOfTickets\":1}");
+    }
+}
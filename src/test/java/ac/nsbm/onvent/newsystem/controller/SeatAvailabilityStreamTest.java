@@ -0,0 +1,210 @@
+package ac.nsbm.onvent.newsystem.controller;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.CacheConfig;
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import ac.nsbm.onvent.newsystem.service.EmailService;
+import ac.nsbm.onvent.newsystem.service.EventService;
+import ac.nsbm.onvent.newsystem.service.SeatAvailabilityPublisher;
+import ac.nsbm.onvent.newsystem.service.SeatHoldService;
+import ac.nsbm.onvent.newsystem.service.TicketService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Updates are pushed by the test instead of the scheduler
+@SpringBootTest(classes = OnventNewApplication.class, properties = "onvent.availability.push-interval-ms=3600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SeatAvailabilityStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SeatAvailabilityPublisher seatAvailabilityPublisher;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    @SpyBean
+    private EventService eventService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User fan;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        fan = userRepository.save(User.builder()
+                .username("streamfan")
+                .email("streamfan@example.com")
+                .name("streamfan")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+        event = eventRepository.save(Event.builder()
+                .title("Open Air Festival")
+                .location("City Park")
+                .date(LocalDateTime.now().plusDays(30))
+                .price(45.0)
+                .seats(10)
+                .organizer(fan)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testStream_SnapshotThenOneCoalescedUpdatePerTick() throws Exception {
+        // Arrange
+        int subscribersBefore = seatAvailabilityPublisher.getSubscriberCount();
+        MockHttpServletResponse first = openStream();
+        MockHttpServletResponse second = openStream();
+
+        // Act - two bookings between ticks, then two ticks
+        awaitContent(first, "\"availableSeats\":10");
+        awaitContent(second, "\"availableSeats\":10");
+        ticketService.bookTicket(booking(2));
+        ticketService.bookTicket(booking(3));
+        seatAvailabilityPublisher.publish();
+        awaitContent(first, "\"bookedSeats\":5");
+        awaitContent(second, "\"bookedSeats\":5");
+        seatAvailabilityPublisher.publish();
+
+        // Assert
+        assertEquals(subscribersBefore + 2, seatAvailabilityPublisher.getSubscriberCount());
+        for (MockHttpServletResponse response : new MockHttpServletResponse[] {first, second}) {
+            String content = response.getContentAsString();
+            assertEquals(2, countOccurrences(content, "event:availability"));
+            assertTrue(content.contains("\"availableSeats\":10"));
+            assertFalse(content.contains("\"availableSeats\":8"));
+            assertTrue(content.contains("\"bookedSeats\":5"));
+            assertTrue(content.contains("\"availableSeats\":5"));
+        }
+    }
+
+    @Test
+    void testStream_HeldSeatsArePushed() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = openStream();
+
+        // Act
+        seatHoldService.createHold(fan.getId(), booking(4));
+        seatAvailabilityPublisher.publish();
+        awaitContent(response, "\"heldSeats\":4,\"availableSeats\":6");
+        ticketService.bookTicket(booking(6));
+        seatAvailabilityPublisher.publish();
+
+        // Assert
+        awaitContent(response, "\"bookedSeats\":6,\"heldSeats\":4,\"availableSeats\":0,\"available\":false");
+    }
+
+    @Test
+    void testStream_FailedLookupKeepsTheStreamOpen() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = openStream();
+        awaitContent(response, "\"availableSeats\":10");
+        int subscribers = seatAvailabilityPublisher.getSubscriberCount();
+
+        // Act - one tick fails to read the event from the database, the next one works again
+        EventService target = AopTestUtils.getTargetObject(eventService);
+        doThrow(new DataAccessResourceFailureException("Connection is not available"))
+                .doCallRealMethod()
+                .when(target).getEventById(event.getId());
+        cacheManager.getCache(CacheConfig.EVENTS).evict(event.getId());
+        ticketService.bookTicket(booking(2));
+        seatAvailabilityPublisher.publish();
+        seatAvailabilityPublisher.publish();
+
+        // Assert
+        awaitContent(response, "\"bookedSeats\":2");
+        assertEquals(subscribers, seatAvailabilityPublisher.getSubscriberCount());
+    }
+
+    @Test
+    void testStream_UnknownEventIsNotFound() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/events/{id}/availability/stream", event.getId() + 1000))
+                .andExpect(status().isNotFound());
+    }
+
+    private MockHttpServletResponse openStream() throws Exception {
+        return mockMvc.perform(get("/api/v1/events/{id}/availability/stream", event.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    // Updates are written by the availability workers, not by publish() itself
+    private static void awaitContent(MockHttpServletResponse response, String text) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(text)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Stream never contained " + text + ": " + response.getContentAsString());
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private BookingRequest booking(int seats) {
+        BookingRequest request = new BookingRequest();
+        request.setEventId(event.getId());
+        request.setUserId(fan.getId());
+        request.setNumberOfTickets(seats);
+        return request;
+    }
+
+    private static int countOccurrences(String content, String text) {
+        int count = 0;
+        for (int index = content.indexOf(text); index >= 0; index = content.indexOf(text, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
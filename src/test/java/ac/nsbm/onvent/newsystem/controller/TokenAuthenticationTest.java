@@ -0,0 +1,135 @@
+package ac.nsbm.onvent.newsystem.controller;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import ac.nsbm.onvent.newsystem.service.EmailService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(classes = OnventNewApplication.class, properties = {
+        "onvent.auth.mode=token",
+        "onvent.auth.token.secret=test-secret-that-is-at-least-32-bytes"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenAuthenticationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(User.builder()
+                .username("stateless")
+                .email("stateless@example.com")
+                .name("Stateless User")
+                .password(passwordEncoder.encode("Secret123"))
+                .role(Role.USER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testLogin_IssuesTokensWithoutASession() throws Exception {
+        // Act
+        MvcResult result = login();
+
+        // Assert
+        JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+        assertEquals("Bearer", body.get("tokenType").asText());
+        assertEquals(900, body.get("expiresIn").asLong());
+        assertFalse(body.get("accessToken").asText().isEmpty());
+        assertFalse(body.get("refreshToken").asText().isEmpty());
+        assertNull(result.getRequest().getSession(false));
+        assertNull(result.getResponse().getCookie("JSESSIONID"));
+    }
+
+    @Test
+    void testAccessToken_AuthenticatesEachRequest() throws Exception {
+        // Arrange
+        String accessToken = token(login(), "accessToken");
+
+        // Act & Assert
+        MvcResult result = mockMvc.perform(get("/api/v1/tickets/user")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNull(result.getRequest().getSession(false));
+
+        mockMvc.perform(get("/api/v1/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("stateless"));
+        mockMvc.perform(get("/api/v1/tickets/user"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/tickets/user").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken + "x"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testRefresh_AcceptsOnlyRefreshTokens() throws Exception {
+        // Arrange
+        MvcResult login = login();
+        String refreshToken = token(login, "refreshToken");
+        String accessToken = token(login, "accessToken");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty());
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + accessToken + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private MvcResult login() throws Exception {
+        return mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"usernameOrEmail\":\"stateless\",\"password\":\"Secret123\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private String token(MvcResult result, String field) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get(field).asText();
+    }
+}
@@ -0,0 +1,234 @@
+package ac.nsbm.onvent.newsystem.repository;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.QueryCounter;
+import ac.nsbm.onvent.newsystem.dto.EventCursorPage;
+import ac.nsbm.onvent.newsystem.dto.EventDTO;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.service.EmailService;
+import ac.nsbm.onvent.newsystem.service.EventService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Event search on PostgreSQL, where it runs on the search_vector column and its GIN index (V10 migration)
+ * and the category filter on its trigram index (V13 migration). The schema is generated from the entities
+ * and the migrations' search column and indexes are applied on top. Needs Docker; the test is skipped
+ * where none is available.
+ *
+ * Completes QueryPlanTest, which checks the plans of the other selective queries on H2, for the two
+ * filters whose indexes only exist on PostgreSQL.
+ */
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class EventSearchPostgresTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", postgres::getDriverClassName);
+    }
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(
+                new ClassPathResource("db/migration/V10__Add_Event_Full_Text_Search.sql"),
+                new ClassPathResource("db/migration/V11__Add_Performance_Indexes.sql"),
+                new ClassPathResource("db/migration/V13__Add_Event_Category_Trigram_Index.sql")).execute(dataSource);
+
+        List<User> organizers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            organizers.add(userRepository.save(User.builder()
+                    .username("pgsearcher" + i)
+                    .email("pgsearcher" + i + "@example.com")
+                    .name("Organizer " + i)
+                    .password("encodedPassword")
+                    .role(Role.USER)
+                    .build()));
+        }
+
+        eventRepository.saveAll(List.of(
+                newEvent("Open Air Cinema", "Film", "Viharamahadevi Park", "Classic films with live jazz between screenings", 1, organizers.get(0)),
+                newEvent("Jazz Night", "Music", "Galle Face Hotel", "Quartet from Kandy", 2, organizers.get(1)),
+                newEvent("Harbour Food Fair", "Food", "Colombo Port City", "Street food from the whole island", 3, organizers.get(2)),
+                newEvent("Colombo Jazz Festival", "Music", "Colombo Racecourse", "Three stages over two days", 4, organizers.get(3))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testSearchEvents_RanksTitleMatchesAboveDescriptionMatches() {
+        // Act
+        List<String> titles = search("jazz");
+
+        // Assert
+        assertEquals(List.of("Jazz Night", "Colombo Jazz Festival", "Open Air Cinema"), titles);
+    }
+
+    @Test
+    void testSearchEvents_MatchesWordPrefixesAcrossFields() {
+        // Act & Assert
+        assertEquals(List.of("Colombo Jazz Festival", "Harbour Food Fair"), search("colom"));
+        assertEquals(List.of("Colombo Jazz Festival"), search("Colombo jaz"));
+        assertEquals(List.of("Harbour Food Fair"), search("food"));
+        assertTrue(search("azz").isEmpty());
+    }
+
+    @Test
+    void testSearchEvents_UsesTheFullTextIndexAndFetchesOrganizersWithThePage() {
+        // Arrange - the first search looks up the search_vector column once
+        search("jazz");
+
+        // Act
+        Page<EventDTO> page;
+        List<String> statements;
+        try (QueryCounter.Recording recording = queryCounter.start()) {
+            page = eventService.searchEvents("jazz", null, null, PageRequest.of(0, 10));
+            statements = recording.statements();
+        }
+
+        // Assert - count, ranked ids and one fetch of the events with their organizers
+        assertEquals(3, statements.size(), String.join("\n", statements));
+        assertTrue(statements.get(1).contains("search_vector"), statements.get(1));
+        assertEquals(List.of("Organizer 1", "Organizer 3", "Organizer 0"),
+                page.getContent().stream().map(EventDTO::getOrganizerName).toList());
+    }
+
+    @Test
+    void testSearchEventsAfter_PagesThroughFullTextMatchesByDate() {
+        // Act
+        EventCursorPage first = eventService.searchEventsAfter("jazz", null, null, null, 2, true);
+        EventCursorPage second = eventService.searchEventsAfter("jazz", null, null, first.getNextCursor(), 2, false);
+
+        // Assert
+        assertEquals(List.of("Open Air Cinema", "Jazz Night"), first.getContent().stream().map(EventDTO::getTitle).toList());
+        assertEquals(3L, first.getTotalElements());
+        assertEquals(List.of("Colombo Jazz Festival"), second.getContent().stream().map(EventDTO::getTitle).toList());
+        assertFalse(second.isHasNext());
+    }
+
+    @Test
+    void testSearchEvents_CategoryFilterMatchesAnyPartIgnoringCase() {
+        // Act
+        Page<EventDTO> page = eventService.searchEvents(null, "USIC", null, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of("Jazz Night", "Colombo Jazz Festival"), page.getContent().stream().map(EventDTO::getTitle).toList());
+        assertTrue(eventService.searchEvents(null, "%", null, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    @Test
+    void testSearchQueries_AreIndexLookups() throws SQLException {
+        // Arrange - the first search looks up the search_vector column once
+        search("jazz");
+
+        // Act - the count statement carries the same filter as the page
+        String textPlan = explain(countStatement(() -> search("jazz")), "jazz:*");
+        String categoryPlan = explain(countStatement(() -> eventService.searchEvents(null, "mus", null, PageRequest.of(0, 10))), "%mus%");
+
+        // Assert
+        assertTrue(textPlan.contains("idx_events_search_vector"), textPlan);
+        assertTrue(categoryPlan.contains("idx_events_category_trgm"), categoryPlan);
+    }
+
+    private String countStatement(Runnable search) {
+        try (QueryCounter.Recording recording = queryCounter.start()) {
+            search.run();
+            return recording.statements().get(0);
+        }
+    }
+
+    private String explain(String sql, String parameter) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement settings = connection.createStatement()) {
+            // A handful of rows fits in one page, so the planner would read the table whatever the indexes
+            settings.execute("SET enable_seqscan = off");
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                statement.setString(1, parameter);
+                try (ResultSet plan = statement.executeQuery()) {
+                    StringBuilder text = new StringBuilder();
+                    while (plan.next()) {
+                        text.append(plan.getString(1)).append('\n');
+                    }
+                    return text.toString();
+                }
+            } finally {
+                settings.execute("RESET enable_seqscan");
+            }
+        }
+    }
+
+    private List<String> search(String text) {
+        Page<EventDTO> page = eventService.searchEvents(text, null, null, PageRequest.of(0, 10));
+        return page.getContent().stream().map(EventDTO::getTitle).toList();
+    }
+
+    private Event newEvent(String title, String category, String location, String description, int day, User organizer) {
+        return Event.builder()
+                .title(title)
+                .category(category)
+                .location(location)
+                .description(description)
+                .date(LocalDateTime.of(2030, 7, day, 18, 0))
+                .price(25.0)
+                .seats(100)
+                .organizer(organizer)
+                .build();
+    }
+}
@@ -0,0 +1,209 @@
+package ac.nsbm.onvent.newsystem.repository;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.Ticket;
+import ac.nsbm.onvent.newsystem.entity.TicketType;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.custom.EventCursor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the indexes of the V11 migration: every selective repository query must be planned as an index lookup.
+ * The SQL Hibernate sends is captured and run through H2's EXPLAIN, which names a tableScan when no index is used.
+ *
+ * Queries that read whole tables on purpose (ledger reconciliation, dashboard stats, the event catalog) are not
+ * listed here. The event search text and category filters run on PostgreSQL-only indexes (V10, V13); their
+ * plans are checked on PostgreSQL by EventSearchPostgresTest.testSearchQueries_AreIndexLookups.
+ */
+@SpringBootTest(classes = OnventNewApplication.class, properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ac.nsbm.onvent.newsystem.repository.QueryPlanTest$RecordingStatementInspector")
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    private static final List<String> recorded = new ArrayList<>();
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Event event;
+    private TicketType vip;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("planner")
+                .email("planner@example.com")
+                .name("Query Planner")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+        event = eventRepository.save(Event.builder()
+                .title("Indexed Show")
+                .category("Music")
+                .location("Main Hall")
+                .date(LocalDateTime.now().plusDays(30))
+                .price(25.0)
+                .seats(100)
+                .organizer(user)
+                .build());
+        vip = new TicketType("VIP", 80.0, 20);
+        vip.setEvent(event);
+        vip = ticketTypeRepository.save(vip);
+        for (int i = 0; i < 5; i++) {
+            ticketRepository.save(Ticket.builder()
+                    .user(user)
+                    .event(event)
+                    .ticketType(i % 2 == 0 ? vip : null)
+                    .pricePaid(i % 2 == 0 ? vip.getPrice() : event.getPrice())
+                    .ticketCode(UUID.randomUUID().toString())
+                    .purchaseDate(LocalDateTime.now())
+                    .status("ACTIVE")
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        ticketTypeRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testSelectiveQueries_AreIndexLookups() throws SQLException {
+        // Arrange
+        Long userId = user.getId();
+        Long eventId = event.getId();
+        LocalDateTime from = LocalDateTime.now();
+        EventCursor cursor = new EventCursor(from, 1L);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("countActiveTicketsByEventId", () -> ticketRepository.countActiveTicketsByEventId(eventId));
+        queries.put("countActiveTicketsByTicketTypeId", () -> ticketRepository.countActiveTicketsByTicketTypeId(vip.getId()));
+        queries.put("findActiveTicketsByUserId", () -> ticketRepository.findActiveTicketsByUserId(userId));
+        queries.put("findActiveBookingsByUserId", () -> ticketRepository.findActiveBookingsByUserId(userId));
+        queries.put("findActiveBookingsByUserId(page)", () -> ticketRepository.findActiveBookingsByUserId(userId, PageRequest.of(1, 2)));
+        queries.put("streamActiveTicketsByEventId", () -> inTransaction(() -> ticketRepository.streamActiveTicketsByEventId(eventId).count()));
+        queries.put("findByEvent", () -> ticketRepository.findByEvent(event));
+        queries.put("findWithOrganizerById", () -> eventRepository.findWithOrganizerById(eventId));
+        queries.put("findEventsWithFilters(date)", () -> eventRepository.findEventsWithFilters(null, null, from,
+                PageRequest.of(1, 2, Sort.by("date", "id"))));
+        queries.put("findEventsWithFiltersAfter(date)", () -> eventRepository.findEventsWithFiltersAfter(null, null, from, cursor, 10));
+        queries.put("reserveSeats(event)", () -> inTransaction(() -> eventRepository.reserveSeats(eventId, 1)));
+        queries.put("reserveSeats(ticketType)", () -> inTransaction(() -> ticketTypeRepository.reserveSeats(vip.getId(), 1)));
+        queries.put("findByUsernameOrEmail", () -> userRepository.findByUsernameOrEmail("planner@example.com"));
+
+        // Act & Assert
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            for (String sql : record(query.getValue())) {
+                String plan = explain(sql);
+                assertFalse(plan.contains("tableScan"), query.getKey() + " reads a whole table:\n" + plan);
+            }
+        }
+    }
+
+    private List<String> record(Runnable query) {
+        synchronized (recorded) {
+            recorded.clear();
+        }
+        query.run();
+        synchronized (recorded) {
+            assertFalse(recorded.isEmpty(), "No statement was recorded");
+            return new ArrayList<>(recorded);
+        }
+    }
+
+    private void inTransaction(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            work.run();
+            status.setRollbackOnly();
+        });
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            ParameterMetaData parameters = statement.getParameterMetaData();
+            for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                bindSample(statement, i, parameters.getParameterType(i));
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                StringBuilder text = new StringBuilder();
+                while (plan.next()) {
+                    text.append(plan.getString(1)).append('\n');
+                }
+                return text.toString();
+            }
+        }
+    }
+
+    private void bindSample(PreparedStatement statement, int index, int sqlType) throws SQLException {
+        switch (sqlType) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT, Types.NUMERIC, Types.DECIMAL ->
+                    statement.setLong(index, 1L);
+            case Types.DOUBLE, Types.FLOAT, Types.REAL -> statement.setDouble(index, 1.0);
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE, Types.DATE ->
+                    statement.setTimestamp(index, Timestamp.valueOf(LocalDateTime.now()));
+            case Types.BOOLEAN -> statement.setBoolean(index, true);
+            default -> statement.setString(index, "1");
+        }
+    }
+
+    /**
+     * Records every statement Hibernate prepares; registered through the statement_inspector property above
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            synchronized (recorded) {
+                recorded.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.dto.QueueStatusResponse;
+import ac.nsbm.onvent.newsystem.exception.AdmissionRequiredException;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.InMemoryAdmissionQueueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionQueueServiceTest {
+
+    private static final Long EVENT_ID = 1L;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private MutableClock clock;
+    private AdmissionQueueService admissionQueueService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(eventRepository.existsById(EVENT_ID)).thenReturn(true);
+        clock = new MutableClock();
+        admissionQueueService = new AdmissionQueueService(new InMemoryAdmissionQueueStore(), eventRepository,
+                Duration.ofMinutes(5), clock);
+    }
+
+    @Test
+    void testAdmitWaiting_SimulatedClientsAdmittedInJoinOrderAtTheRate() throws Exception {
+        // Arrange - 1000 clients join at once from many threads
+        admissionQueueService.openQueue(EVENT_ID, 100);
+        Map<Long, QueueStatusResponse> joined = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> joins = new ArrayList<>();
+        for (long userId = 1; userId <= 1000; userId++) {
+            long user = userId;
+            joins.add(executor.submit(() -> joined.put(user, admissionQueueService.join(EVENT_ID, user))));
+        }
+        for (Future<?> join : joins) {
+            join.get();
+        }
+        executor.shutdown();
+
+        // Act - one second of admissions
+        clock.advance(Duration.ofSeconds(1));
+        admissionQueueService.admitWaiting();
+
+        // Assert - exactly the first 100 positions are in, the rest moved up by 100
+        int admitted = 0;
+        for (Map.Entry<Long, QueueStatusResponse> client : joined.entrySet()) {
+            QueueStatusResponse status = admissionQueueService.getStatus(EVENT_ID, client.getValue().getToken(), client.getKey());
+            long joinPosition = client.getValue().getPosition();
+            if (joinPosition <= 100) {
+                assertEquals("ADMITTED", status.getStatus());
+                admitted++;
+            } else {
+                assertEquals("WAITING", status.getStatus());
+                assertEquals(joinPosition - 100, status.getPosition());
+            }
+        }
+        assertEquals(100, admitted);
+    }
+
+    @Test
+    void testAdmitWaiting_LateTickDoesNotReleaseABurst() {
+        // Arrange
+        admissionQueueService.openQueue(EVENT_ID, 10);
+        List<String> tokens = new ArrayList<>();
+        for (long userId = 1; userId <= 50; userId++) {
+            tokens.add(admissionQueueService.join(EVENT_ID, userId).getToken());
+        }
+
+        // Act - the scheduler stalled for a minute
+        clock.advance(Duration.ofMinutes(1));
+        admissionQueueService.admitWaiting();
+
+        // Assert
+        assertEquals("ADMITTED", admissionQueueService.getStatus(EVENT_ID, tokens.get(9), 10L).getStatus());
+        assertEquals(1, admissionQueueService.getStatus(EVENT_ID, tokens.get(10), 11L).getPosition());
+    }
+
+    @Test
+    void testJoin_JoiningAgainKeepsThePlace() {
+        // Arrange
+        admissionQueueService.openQueue(EVENT_ID, 10);
+        admissionQueueService.join(EVENT_ID, 1L);
+        QueueStatusResponse first = admissionQueueService.join(EVENT_ID, 2L);
+
+        // Act
+        QueueStatusResponse again = admissionQueueService.join(EVENT_ID, 2L);
+
+        // Assert
+        assertEquals(first.getToken(), again.getToken());
+        assertEquals(2, again.getPosition());
+    }
+
+    @Test
+    void testConsumeAdmission_OnlyTheAdmittedUsersOwnTokenPasses() {
+        // Arrange
+        admissionQueueService.openQueue(EVENT_ID, 10);
+        String token = admissionQueueService.join(EVENT_ID, 1L).getToken();
+
+        // Act & Assert
+        assertThrows(AdmissionRequiredException.class, () -> admissionQueueService.consumeAdmission(EVENT_ID, 1L, token));
+        clock.advance(Duration.ofSeconds(1));
+        admissionQueueService.admitWaiting();
+        assertThrows(AdmissionRequiredException.class, () -> admissionQueueService.consumeAdmission(EVENT_ID, 2L, token));
+        assertThrows(AdmissionRequiredException.class, () -> admissionQueueService.consumeAdmission(EVENT_ID, 1L, null));
+        assertNotNull(admissionQueueService.consumeAdmission(EVENT_ID, 1L, token));
+        assertThrows(AdmissionRequiredException.class, () -> admissionQueueService.consumeAdmission(EVENT_ID, 1L, token));
+    }
+
+    @Test
+    void testConsumeAdmission_ConcurrentUseOfOneTokenAdmitsOnce() throws Exception {
+        // Arrange
+        admissionQueueService.openQueue(EVENT_ID, 10);
+        String token = admissionQueueService.join(EVENT_ID, 1L).getToken();
+        clock.advance(Duration.ofSeconds(1));
+        admissionQueueService.admitWaiting();
+        int attempts = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < attempts; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    admissionQueueService.consumeAdmission(EVENT_ID, 1L, token);
+                    return true;
+                } catch (AdmissionRequiredException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int admitted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                admitted++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, admitted);
+    }
+
+    @Test
+    void testRestoreAdmission_FailedBookingCanBeRetried() {
+        // Arrange
+        admissionQueueService.openQueue(EVENT_ID, 10);
+        String token = admissionQueueService.join(EVENT_ID, 1L).getToken();
+        clock.advance(Duration.ofSeconds(1));
+        admissionQueueService.admitWaiting();
+
+        // Act
+        admissionQueueService.restoreAdmission(admissionQueueService.consumeAdmission(EVENT_ID, 1L, token));
+
+        // Assert
+        assertEquals("ADMITTED", admissionQueueService.getStatus(EVENT_ID, token, 1L).getStatus());
+        assertNotNull(admissionQueueService.consumeAdmission(EVENT_ID, 1L, token));
+    }
+
+    @Test
+    void testConsumeAdmission_UnusedPassExpires() {
+        // Arrange
+        admissionQueueService.openQueue(EVENT_ID, 10);
+        String token = admissionQueueService.join(EVENT_ID, 1L).getToken();
+        clock.advance(Duration.ofSeconds(1));
+        admissionQueueService.admitWaiting();
+
+        // Act
+        clock.advance(Duration.ofMinutes(5));
+
+        // Assert
+        assertThrows(AdmissionRequiredException.class, () -> admissionQueueService.consumeAdmission(EVENT_ID, 1L, token));
+    }
+
+    @Test
+    void testConsumeAdmission_EventsWithoutAQueueAreBookedDirectly() {
+        // Act & Assert
+        assertEquals("NO_QUEUE", admissionQueueService.join(EVENT_ID, 1L).getStatus());
+        assertNull(admissionQueueService.consumeAdmission(EVENT_ID, 1L, null));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
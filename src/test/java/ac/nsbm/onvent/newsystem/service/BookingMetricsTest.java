@@ -0,0 +1,191 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.exception.InsufficientSeatsException;
+import ac.nsbm.onvent.newsystem.exception.InvalidBookingException;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = OnventNewApplication.class, properties = {
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.metrics.distribution.percentiles-histogram.booking=true"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class BookingMetricsTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User user;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("metrics")
+                .email("metrics@example.com")
+                .name("Metrics User")
+                .password("encodedPassword")
+                .role(Role.ADMIN)
+                .build());
+        event = eventRepository.save(newEvent(LocalDateTime.now().plusDays(10)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testBookTicket_EveryStageAndTheOutcomeAreRecorded() {
+        // Arrange
+        long successes = outcomeCount("success");
+        long inserts = stageCount("ticket-insert");
+
+        // Act
+        ticketService.bookTicket(booking(event, 2));
+
+        // Assert
+        assertEquals(successes + 1, outcomeCount("success"));
+        assertEquals(inserts + 1, stageCount("ticket-insert"));
+        for (String stage : new String[] {"user-lookup", "event-lookup", "seat-ledger", "seat-claim", "notification"}) {
+            assertTrue(stageCount(stage) > 0, stage);
+        }
+        assertTrue(meterRegistry.get("booking.duration").tag("outcome", "success").timer().totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    void testBookTicket_RejectionsAreCountedByOutcome() {
+        // Arrange
+        Event pastEvent = eventRepository.save(newEvent(LocalDateTime.now().minusDays(1)));
+        long pastEvents = outcomeCount("past-event");
+        long insufficientSeats = outcomeCount("insufficient-seats");
+        long invalidRequests = outcomeCount("invalid-request");
+
+        // Act
+        assertThrows(InvalidBookingException.class, () -> ticketService.bookTicket(booking(pastEvent, 1)));
+        assertThrows(InsufficientSeatsException.class, () -> ticketService.bookTicket(booking(event, 6)));
+        assertThrows(InvalidBookingException.class, () -> ticketService.bookTicket(booking(event, 0)));
+
+        // Assert
+        assertEquals(pastEvents + 1, outcomeCount("past-event"));
+        assertEquals(insufficientSeats + 1, outcomeCount("insufficient-seats"));
+        assertEquals(invalidRequests + 1, outcomeCount("invalid-request"));
+    }
+
+    @Test
+    void testBookTicket_RolledBackBookingIsNotASuccess() {
+        // Arrange
+        long successes = outcomeCount("success");
+        long failures = outcomeCount("failed");
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // Act - the booking itself goes through, but its transaction does not commit
+        transaction.executeWithoutResult(status -> {
+            ticketService.bookTicket(booking(event, 1));
+            assertEquals(successes, outcomeCount("success"));
+            status.setRollbackOnly();
+        });
+
+        // Assert
+        assertEquals(successes, outcomeCount("success"));
+        assertEquals(failures + 1, outcomeCount("failed"));
+    }
+
+    @Test
+    void testPrometheusEndpoint_PublishesBookingHistograms() throws Exception {
+        // Arrange
+        ticketService.bookTicket(booking(event, 1));
+        UserPrincipal principal = UserPrincipal.from(user);
+
+        // Act
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                        .with(authentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Assert
+        assertTrue(scrape.contains("booking_duration_seconds_bucket{"));
+        assertTrue(scrape.contains("booking_stage_seconds_count{"));
+        assertTrue(scrape.contains("booking_outcome_total{"));
+    }
+
+    private long outcomeCount(String outcome) {
+        return (long) meterRegistry.get("booking.outcome").tag("outcome", outcome).counter().count();
+    }
+
+    private long stageCount(String stage) {
+        return meterRegistry.get("booking.stage").tag("stage", stage).timer().count();
+    }
+
+    private BookingRequest booking(Event target, int seats) {
+        BookingRequest request = new BookingRequest();
+        request.setUserId(user.getId());
+        request.setEventId(target.getId());
+        request.setNumberOfTickets(seats);
+        return request;
+    }
+
+    private Event newEvent(LocalDateTime date) {
+        return Event.builder()
+                .title("Metrics Concert")
+                .location("Main Hall")
+                .date(date)
+                .price(20.0)
+                .seats(5)
+                .organizer(user)
+                .build();
+    }
+}
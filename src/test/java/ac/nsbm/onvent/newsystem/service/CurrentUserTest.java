@@ -0,0 +1,134 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class CurrentUserTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("current")
+                .email("current@example.com")
+                .name("Current User")
+                .password(passwordEncoder.encode("Secret123"))
+                .role(Role.ADMIN)
+                .build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testGetCurrentUser_ResolvedFromPrincipalWithoutQueries() {
+        // Arrange
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken("current@example.com", "Secret123"));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        statistics.clear();
+
+        // Act
+        UserPrincipal currentUser = userService.getCurrentUser().orElseThrow();
+
+        // Assert
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(user.getId(), currentUser.getId());
+        assertEquals("current", currentUser.getUsername());
+        assertEquals("Current User", currentUser.getName());
+        assertTrue(currentUser.isAdmin());
+        assertNull(currentUser.getPassword());
+    }
+
+    @Test
+    void testGetCurrentUser_AnonymousRequestHasNoUser() {
+        // Arrange
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        // Act & Assert
+        assertTrue(userService.getCurrentUser().isEmpty());
+    }
+
+    @Test
+    void testGetCurrentUser_OtherAuthenticationsUseTheCacheUntilAUserIsSaved() {
+        // Arrange - an authentication whose principal is only the username
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                "current", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+        userService.getCurrentUser();
+        statistics.clear();
+
+        // Act
+        UserPrincipal cached = userService.getCurrentUser().orElseThrow();
+        long cachedStatements = statistics.getPrepareStatementCount();
+        user.setName("Renamed User");
+        userRepository.save(user);
+        statistics.clear();
+        UserPrincipal reloaded = userService.getCurrentUser().orElseThrow();
+
+        // Assert
+        assertEquals(0, cachedStatements);
+        assertEquals(user.getId(), cached.getId());
+        assertNull(cached.getPassword());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("Renamed User", reloaded.getName());
+    }
+
+    @Test
+    void testAuthenticate_ReadsTheDatabaseEvenWhenTheUserIsCached() {
+        // Arrange
+        userRepository.findPrincipalByUsernameOrEmail("current");
+        statistics.clear();
+
+        // Act
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("current", "Secret123"));
+
+        // Assert
+        assertTrue(statistics.getPrepareStatementCount() >= 1);
+    }
+}
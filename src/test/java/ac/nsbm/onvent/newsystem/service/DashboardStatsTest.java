@@ -0,0 +1,146 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.dto.DashboardStatsDTO;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.TicketType;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.EventSalesRollupRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketTypeRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class DashboardStatsTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Autowired
+    private EventSalesRollupRepository eventSalesRollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User user;
+    private Event event;
+    private TicketType vip;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("dashboard")
+                .email("dashboard@example.com")
+                .name("Dashboard Test")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+        event = eventRepository.save(Event.builder()
+                .title("Dashboard Show")
+                .location("Main Hall")
+                .date(LocalDateTime.now().plusDays(30))
+                .price(20.0)
+                .seats(100)
+                .organizer(user)
+                .build());
+        vip = new TicketType("VIP", 50.0, 10);
+        vip.setEvent(event);
+        vip = ticketTypeRepository.save(vip);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        eventSalesRollupRepository.deleteAll();
+        ticketTypeRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testGetDashboardStats_RollupMatchesAggregateAfterBookingsAndCancellation() {
+        // Arrange
+        DashboardStatsDTO aggregateBefore = ticketRepository.getDashboardStats();
+        DashboardStatsDTO rollupBefore = eventSalesRollupRepository.getDashboardStats();
+
+        // Act - 3 general tickets at 20.0, 2 VIP tickets at 50.0, then cancel one VIP ticket
+        book(null, 3);
+        BookingResponse vipBooking = book(vip.getId(), 2);
+        ticketService.cancelBooking(vipBooking.getTicketId());
+
+        // Assert
+        DashboardStatsDTO aggregate = ticketRepository.getDashboardStats();
+        DashboardStatsDTO rollup = eventSalesRollupRepository.getDashboardStats();
+        assertEquals(4, aggregate.getTotalTickets() - aggregateBefore.getTotalTickets());
+        assertEquals(110.0, aggregate.getTotalRevenue() - aggregateBefore.getTotalRevenue(), 0.001);
+        assertEquals(4, rollup.getTotalTickets() - rollupBefore.getTotalTickets());
+        assertEquals(110.0, rollup.getTotalRevenue() - rollupBefore.getTotalRevenue(), 0.001);
+        assertEquals(eventRepository.count(), aggregate.getTotalEvents());
+        assertEquals(eventRepository.count(), rollup.getTotalEvents());
+    }
+
+    @Test
+    void testCancelBooking_PriceChangedSinceBookingRefundsThePricePaid() {
+        // Arrange - one general ticket at 20.0 and one VIP ticket at 50.0, then both prices go up
+        DashboardStatsDTO aggregateBefore = ticketRepository.getDashboardStats();
+        DashboardStatsDTO rollupBefore = eventSalesRollupRepository.getDashboardStats();
+        BookingResponse general = book(null, 1);
+        BookingResponse vipBooking = book(vip.getId(), 1);
+        book(null, 1);
+        event = eventRepository.findById(event.getId()).orElseThrow();
+        event.setPrice(35.0);
+        eventRepository.save(event);
+        vip = ticketTypeRepository.findById(vip.getId()).orElseThrow();
+        vip.setPrice(90.0);
+        ticketTypeRepository.save(vip);
+
+        // Act
+        ticketService.cancelBooking(general.getTicketId());
+        ticketService.cancelBooking(vipBooking.getTicketId());
+
+        // Assert - the ticket still held was bought at 20.0
+        DashboardStatsDTO aggregate = ticketRepository.getDashboardStats();
+        DashboardStatsDTO rollup = eventSalesRollupRepository.getDashboardStats();
+        assertEquals(1, rollup.getTotalTickets() - rollupBefore.getTotalTickets());
+        assertEquals(20.0, rollup.getTotalRevenue() - rollupBefore.getTotalRevenue(), 0.001);
+        assertEquals(1, aggregate.getTotalTickets() - aggregateBefore.getTotalTickets());
+        assertEquals(20.0, aggregate.getTotalRevenue() - aggregateBefore.getTotalRevenue(), 0.001);
+    }
+
+    private BookingResponse book(Long ticketTypeId, int numberOfTickets) {
+        BookingRequest request = new BookingRequest();
+        request.setUserId(user.getId());
+        request.setEventId(event.getId());
+        request.setTicketTypeId(ticketTypeId);
+        request.setNumberOfTickets(numberOfTickets);
+        return ticketService.bookTicket(request);
+    }
+}
@@ -0,0 +1,193 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.CacheConfig;
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.dto.EventDTO;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class EventCacheTest {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PdfService pdfService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private EmailService emailService;
+
+    private EventDTO event;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(User.builder()
+                .username("cacher")
+                .email("cacher@example.com")
+                .name("Cache Organizer")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+        event = eventService.createEvent(newEvent("Cached Concert"), "cacher");
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.EVENTS).clear();
+        cacheManager.getCache(CacheConfig.EVENT_CATALOG).clear();
+    }
+
+    @Test
+    void testGetEventById_ServedFromCacheAfterFirstRead() {
+        // Arrange
+        cacheManager.getCache(CacheConfig.EVENTS).evict(event.getId());
+        double hitsBefore = cacheGets("hit");
+        double missesBefore = cacheGets("miss");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // Act
+        EventDTO first = eventService.getEventById(event.getId());
+        long statementsAfterMiss = statistics.getPrepareStatementCount();
+        EventDTO second = eventService.getEventById(event.getId());
+
+        // Assert - the miss loads event and organizer in one query, the hit runs none
+        assertEquals(1, statementsAfterMiss);
+        assertEquals(statementsAfterMiss, statistics.getPrepareStatementCount());
+        assertEquals("Cache Organizer", first.getOrganizerName());
+        assertEquals(first, second);
+        assertEquals(1, cacheGets("miss") - missesBefore);
+        assertEquals(1, cacheGets("hit") - hitsBefore);
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void testUpdateEvent_ReplacesCachedEventAndCatalog() {
+        // Arrange
+        eventService.getEventById(event.getId());
+        assertEquals(1, eventService.getEvents(FIRST_PAGE).getTotalElements());
+
+        // Act
+        eventService.updateEvent(event.getId(), newEvent("Renamed Concert"), "cacher");
+
+        // Assert
+        assertEquals("Renamed Concert", eventService.getEventById(event.getId()).getTitle());
+        assertEquals("Renamed Concert", eventService.getEvents(FIRST_PAGE).getContent().get(0).getTitle());
+    }
+
+    @Test
+    void testUpdateEvent_TicketsAreRenderedWithTheNewDetails() throws IOException {
+        // Arrange
+        pdfService.generateTicketPdfFromTemplate(booking(event));
+        assertEquals(1, pdfService.cachedTemplateCount(event.getId()));
+
+        // Act
+        EventDTO renamed = eventService.updateEvent(event.getId(), newEvent("Renamed Concert"), "cacher");
+        int templatesAfterUpdate = pdfService.cachedTemplateCount(event.getId());
+        String ticket = extractText(pdfService.generateTicketPdfFromTemplate(booking(renamed)));
+
+        // Assert
+        assertEquals(0, templatesAfterUpdate);
+        assertTrue(ticket.contains("Renamed Concert"));
+        assertFalse(ticket.contains("Cached Concert"));
+    }
+
+    @Test
+    void testCreateAndDeleteEvent_InvalidateCatalogAndEntry() {
+        // Arrange
+        assertEquals(1, eventService.getEvents(FIRST_PAGE).getTotalElements());
+
+        // Act
+        EventDTO second = eventService.createEvent(newEvent("Second Concert"), "cacher");
+        pdfService.generateTicketPdfFromTemplate(booking(second));
+
+        // Assert
+        assertEquals(2, eventService.getEvents(FIRST_PAGE).getTotalElements());
+        assertEquals("Second Concert", cacheManager.getCache(CacheConfig.EVENTS).get(second.getId(), EventDTO.class).getTitle());
+
+        // Act
+        eventService.deleteEvent(second.getId(), "cacher");
+
+        // Assert
+        assertNull(cacheManager.getCache(CacheConfig.EVENTS).get(second.getId()));
+        assertEquals(0, pdfService.cachedTemplateCount(second.getId()));
+        assertEquals(1, eventService.getEvents(FIRST_PAGE).getTotalElements());
+        assertThrows(RuntimeException.class, () -> eventService.getEventById(second.getId()));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.EVENTS)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private BookingResponse booking(EventDTO target) {
+        return new BookingResponse(1L, "TKT-CACHE001", 1L, "Cache Organizer", target.getId(), target.getTitle(),
+                target.getVenue(), target.getDate(), target.getPrice(), LocalDateTime.of(2030, 1, 15, 9, 30), "ACTIVE", 99);
+    }
+
+    private String extractText(byte[] pdf) throws IOException {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            return PdfTextExtractor.getTextFromPage(document.getFirstPage());
+        }
+    }
+
+    private EventDTO newEvent(String title) {
+        return EventDTO.builder()
+                .title(title)
+                .venue("Main Hall")
+                .date(LocalDateTime.of(2030, 8, 1, 19, 0))
+                .price(25.0)
+                .seats(100)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.CacheConfig;
+import ac.nsbm.onvent.newsystem.dto.EventDTO;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class EventListingTest {
+
+    private static final int EVENTS = 23;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            // A different organizer per event, so per-row organizer lookups would show up as extra statements
+            User organizer = userRepository.save(User.builder()
+                    .username("lister" + i)
+                    .email("lister" + i + "@example.com")
+                    .name("Organizer " + i)
+                    .password("encodedPassword")
+                    .role(Role.USER)
+                    .build());
+            events.add(Event.builder()
+                    .title("Event " + i)
+                    .location("Hall " + i)
+                    .date(LocalDateTime.of(2030, 9, 1, 18, 0).plusDays(EVENTS - i))
+                    .price(10.0 + i)
+                    .seats(100)
+                    .organizer(organizer)
+                    .build());
+        }
+        eventRepository.saveAll(events);
+        cacheManager.getCache(CacheConfig.EVENT_CATALOG).clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+        cacheManager.getCache(CacheConfig.EVENT_CATALOG).clear();
+    }
+
+    @Test
+    void testGetEvents_PagesWithOrganizerInConstantQueries() {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // Act
+        Page<EventDTO> page = eventService.getEvents(PageRequest.of(1, 10, Sort.by("date").and(Sort.by("id"))));
+
+        // Assert - the page and its total, however many organizers are on it
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(10, page.getContent().size());
+        assertEquals(EVENTS, page.getTotalElements());
+        assertEquals("Event 12", page.getContent().get(0).getTitle());
+        assertEquals("Organizer 12", page.getContent().get(0).getOrganizerName());
+        assertEquals("Hall 12", page.getContent().get(0).getVenue());
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void testGetEvents_SortsByRequestedProperty() {
+        // Act
+        Page<EventDTO> page = eventService.getEvents(PageRequest.of(0, 5, Sort.by("price").descending()));
+
+        // Assert
+        assertEquals(List.of("Event 22", "Event 21", "Event 20", "Event 19", "Event 18"),
+                page.getContent().stream().map(EventDTO::getTitle).toList());
+    }
+
+    @Test
+    void testStreamEvents_VisitsEveryEventInDateOrder() {
+        // Act
+        List<EventDTO> streamed = new ArrayList<>();
+        eventService.streamEvents(streamed::add);
+
+        // Assert
+        assertEquals(EVENTS, streamed.size());
+        assertEquals("Event 22", streamed.get(0).getTitle());
+        assertEquals("Event 0", streamed.get(EVENTS - 1).getTitle());
+        assertTrue(streamed.stream().allMatch(event -> event.getOrganizerName() != null));
+    }
+}
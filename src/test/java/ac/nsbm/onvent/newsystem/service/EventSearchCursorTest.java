@@ -0,0 +1,121 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.dto.EventCursorPage;
+import ac.nsbm.onvent.newsystem.dto.EventDTO;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class EventSearchCursorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2030, 6, 1, 18, 0);
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        User organizer = userRepository.save(User.builder()
+                .username("cursor")
+                .email("cursor@example.com")
+                .name("Cursor Organizer")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+
+        // 25 matching events, three per date so paging has to break ties on id
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            events.add(newEvent("Jazz Night " + i, START.plusDays(i / 3), organizer));
+        }
+        events.add(newEvent("Poetry Evening", START, organizer));
+        eventRepository.saveAll(events);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testSearchEventsAfter_WalksEveryEventOnceInOrder() {
+        // Act
+        List<EventDTO> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        EventCursorPage page;
+        do {
+            page = eventService.searchEventsAfter("jazz", null, null, cursor, 10, false);
+            seen.addAll(page.getContent());
+            pageSizes.add(page.getContent().size());
+            cursor = page.getNextCursor();
+        } while (page.isHasNext());
+
+        // Assert
+        assertEquals(List.of(10, 10, 5), pageSizes);
+        assertEquals(25, seen.stream().map(EventDTO::getId).distinct().count());
+        List<EventDTO> sorted = new ArrayList<>(seen);
+        sorted.sort(Comparator.comparing(EventDTO::getDate).thenComparing(EventDTO::getId));
+        assertEquals(sorted, seen);
+        assertNull(page.getNextCursor());
+        assertNull(page.getTotalElements());
+    }
+
+    @Test
+    void testSearchEventsAfter_TotalOnlyWhenRequested() {
+        // Act
+        EventCursorPage page = eventService.searchEventsAfter("jazz", null, START.plusDays(7), null, 10, true);
+
+        // Assert - days 7 and 8 hold events 21 to 24
+        assertEquals(4, page.getTotalElements());
+        assertEquals(4, page.getContent().size());
+        assertFalse(page.isHasNext());
+    }
+
+    @Test
+    void testSearchEventsAfter_RejectsForgedCursor() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> eventService.searchEventsAfter(null, null, null, "not-a-cursor", 10, false));
+    }
+
+    private Event newEvent(String title, LocalDateTime date, User organizer) {
+        return Event.builder()
+                .title(title)
+                .location("Main Hall")
+                .date(date)
+                .price(25.0)
+                .seats(100)
+                .organizer(organizer)
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.dto.EventDTO;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class EventSearchTest {
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        User organizer = userRepository.save(User.builder()
+                .username("searcher")
+                .email("searcher@example.com")
+                .name("Search Organizer")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+
+        eventRepository.saveAll(List.of(
+                newEvent("Open Air Cinema", "Film", "Viharamahadevi Park", "Classic films with live jazz between screenings", 1, organizer),
+                newEvent("Jazz Night", "Music", "Galle Face Hotel", "Quartet from Kandy", 2, organizer),
+                newEvent("Harbour Food Fair", "Food", "Colombo Port City", "Street food from the whole island", 3, organizer),
+                newEvent("Colombo Jazz Festival", "Music", "Colombo Racecourse", "Three stages over two days", 4, organizer)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testSearchEvents_RanksTitleMatchesAboveDescriptionMatches() {
+        // Act
+        List<String> titles = search("jazz");
+
+        // Assert - both title matches come first (by date), then the description-only match
+        assertEquals(List.of("Jazz Night", "Colombo Jazz Festival", "Open Air Cinema"), titles);
+    }
+
+    @Test
+    void testSearchEvents_MatchesWordPrefixesAcrossFields() {
+        // Act & Assert
+        assertEquals(List.of("Colombo Jazz Festival", "Harbour Food Fair"), search("colom"));
+        assertEquals(List.of("Colombo Jazz Festival"), search("Colombo jaz"));
+        assertEquals(List.of("Harbour Food Fair"), search("food"));
+    }
+
+    @Test
+    void testSearchEvents_DoesNotMatchInsideWords() {
+        // Act & Assert
+        assertTrue(search("azz").isEmpty());
+    }
+
+    @Test
+    void testSearchEvents_CategoryFilterMatchesAnyPartIgnoringCase() {
+        // Act
+        Page<EventDTO> page = eventService.searchEvents(null, "mus", null, PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(List.of("Jazz Night", "Colombo Jazz Festival"), page.getContent().stream().map(EventDTO::getTitle).toList());
+        assertEquals(2, eventService.searchEvents(null, "USIC", null, PageRequest.of(0, 10)).getTotalElements());
+        assertTrue(eventService.searchEvents(null, "%", null, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private List<String> search(String text) {
+        Page<EventDTO> page = eventService.searchEvents(text, null, null, PageRequest.of(0, 10));
+        return page.getContent().stream().map(EventDTO::getTitle).toList();
+    }
+
+    private Event newEvent(String title, String category, String location, String description, int day, User organizer) {
+        return Event.builder()
+                .title(title)
+                .category(category)
+                .location(location)
+                .description(description)
+                .date(LocalDateTime.of(2030, 7, day, 18, 0))
+                .price(25.0)
+                .seats(100)
+                .organizer(organizer)
+                .build();
+    }
+}
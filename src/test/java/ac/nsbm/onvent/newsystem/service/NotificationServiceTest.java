@@ -0,0 +1,216 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.QueryCounter;
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.NotificationOutbox;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.TicketType;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.NotificationOutboxRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketTypeRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class NotificationServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    private User user;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        // Bookings made by other test classes leave their sent notifications behind
+        outboxRepository.deleteAll();
+        user = userRepository.save(User.builder()
+                .username("mailtest")
+                .email("mailtest@example.com")
+                .name("Mail Test")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+        event = eventRepository.save(Event.builder()
+                .title("Jazz Night")
+                .location("Open Air Theatre")
+                .date(LocalDateTime.now().plusDays(10))
+                .price(15.0)
+                .seats(100)
+                .organizer(user)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        ticketRepository.deleteAll();
+        ticketTypeRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testBookTicket_ConfirmationDeliveredAfterCommit() throws Exception {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            ticketService.bookTicket(bookingRequest());
+        }
+
+        // Assert
+        assertTrue(greenMail.waitForIncomingEmail(5000, 3));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Booking Confirmation - Jazz Night", received[0].getSubject());
+        assertEquals("mailtest@example.com", received[0].getAllRecipients()[0].toString());
+        waitUntil(() -> outboxRepository.countByStatus(NotificationOutbox.OutboxStatus.SENT.name()) == 3);
+    }
+
+    @Test
+    void testBookTicket_ConfirmationShowsThePricePaidForTheTicketType() throws Exception {
+        // Arrange - VIP tickets cost more than the event's 15.0
+        TicketType vip = new TicketType("VIP", 40.0, 10);
+        vip.setEvent(event);
+        vip = ticketTypeRepository.save(vip);
+        BookingRequest request = bookingRequest();
+        request.setTicketTypeId(vip.getId());
+        request.setNumberOfTickets(2);
+
+        // Act
+        BookingResponse booking = ticketService.bookTicket(request);
+
+        // Assert
+        assertEquals(80.0, booking.getTotalPrice(), 0.001);
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        assertTrue(html(greenMail.getReceivedMessages()[0]).contains("<strong>Total Price:</strong> $80.00"));
+    }
+
+    @Test
+    void testDrain_FailedSendIsRetriedWithBackoff() throws Exception {
+        // Arrange
+        greenMail.stop();
+        BookingResponse booking = ticketService.bookTicket(bookingRequest());
+
+        // Act
+        waitUntil(() -> outboxRepository.findAll().get(0).getAttempts() == 1);
+
+        // Assert
+        NotificationOutbox notification = outboxRepository.findAll().get(0);
+        assertEquals(NotificationOutbox.OutboxStatus.PENDING.name(), notification.getStatus());
+        assertTrue(notification.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNotNull(notification.getLastError());
+        assertTrue(notification.getPayload().contains(booking.getTicketCode()));
+        assertEquals(Duration.ofSeconds(120), notificationService.backoff(3));
+    }
+
+    @Test
+    void testClaimBatch_ClaimsTheWholeBatchInTwoStatements() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            outboxRepository.save(NotificationOutbox.builder()
+                    .type(NotificationOutbox.NotificationType.BOOKING_CONFIRMATION.name())
+                    .recipient("mailtest@example.com")
+                    .payload("{}")
+                    .status(NotificationOutbox.OutboxStatus.PENDING.name())
+                    .attempts(0)
+                    .nextAttemptAt(LocalDateTime.now().minusMinutes(1))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+
+        // Act
+        List<NotificationOutbox> claimed;
+        int statements;
+        try (QueryCounter.Recording recording = queryCounter.start()) {
+            claimed = notificationService.claimBatch();
+            statements = recording.count();
+        }
+
+        // Assert - one locking read and one update, and a second claim finds nothing left
+        assertEquals(2, statements);
+        assertEquals(5, claimed.size());
+        assertEquals(5, outboxRepository.countByStatus(NotificationOutbox.OutboxStatus.SENDING.name()));
+        assertTrue(notificationService.claimBatch().isEmpty());
+    }
+
+    private BookingRequest bookingRequest() {
+        BookingRequest request = new BookingRequest();
+        request.setUserId(user.getId());
+        request.setEventId(event.getId());
+        request.setNumberOfTickets(1);
+        return request;
+    }
+
+    private String html(Part part) throws Exception {
+        if (part.isMimeType("text/html")) {
+            return (String) part.getContent();
+        }
+        if (part.getContent() instanceof Multipart multipart) {
+            for (int i = 0; i < multipart.getCount(); i++) {
+                String html = html(multipart.getBodyPart(i));
+                if (html != null) {
+                    return html;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 5 seconds");
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class PasswordRehashTest {
+
+    @Autowired
+    private AuthenticationManager authenticationManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testLogin_RehashesLegacyBcryptHash() {
+        // Arrange - a hash stored before hashes carried an {id} prefix
+        String legacyHash = new BCryptPasswordEncoder(5).encode("Secret123");
+        User user = userRepository.save(newUser(legacyHash));
+
+        // Act
+        login("legacy", "Secret123");
+
+        // Assert
+        String storedHash = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertNotEquals(legacyHash, storedHash);
+        assertTrue(storedHash.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(passwordEncoder.matches("Secret123", storedHash));
+        assertFalse(passwordEncoder.upgradeEncoding(storedHash));
+    }
+
+    @Test
+    void testLogin_KeepsCurrentHash() {
+        // Arrange
+        String currentHash = passwordEncoder.encode("Secret123");
+        User user = userRepository.save(newUser(currentHash));
+
+        // Act
+        login("legacy", "Secret123");
+
+        // Assert
+        assertEquals(currentHash, userRepository.findById(user.getId()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void testLogin_WrongPasswordIsNotRehashed() {
+        // Arrange
+        String legacyHash = new BCryptPasswordEncoder(5).encode("Secret123");
+        User user = userRepository.save(newUser(legacyHash));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> login("legacy", "Wrong123"));
+        assertEquals(legacyHash, userRepository.findById(user.getId()).orElseThrow().getPassword());
+    }
+
+    private void login(String username, String password) {
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+    }
+
+    private User newUser(String passwordHash) {
+        return User.builder()
+                .username("legacy")
+                .email("legacy@example.com")
+                .name("Legacy User")
+                .password(passwordHash)
+                .role(Role.USER)
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfServiceTest {
+
+    private final PdfService pdfService = new PdfService();
+
+    @Test
+    void testGenerateTicketPdfFromTemplate_StampsTicketFields() throws IOException {
+        // Arrange
+        BookingResponse first = booking("TKT-AAAA1111", "Jane Perera");
+        BookingResponse second = booking("TKT-BBBB2222", "Kasun Silva");
+
+        // Act
+        String firstText = extractText(pdfService.generateTicketPdfFromTemplate(first));
+        String secondText = extractText(pdfService.generateTicketPdfFromTemplate(second));
+
+        // Assert
+        assertTrue(firstText.contains("Colombo Music Festival"));
+        assertTrue(firstText.contains("TKT-AAAA1111"));
+        assertTrue(firstText.contains("Jane Perera"));
+        assertTrue(firstText.contains("2030-01-15 09:30"));
+        assertTrue(secondText.contains("TKT-BBBB2222"));
+        assertTrue(secondText.contains("Kasun Silva"));
+        assertFalse(secondText.contains("TKT-AAAA1111"));
+    }
+
+    @Test
+    void testGenerateTicketPdfFromTemplate_MatchesLayoutOfFullRender() throws IOException {
+        // Arrange
+        BookingResponse booking = booking("TKT-CCCC3333", "Nimal Fernando");
+
+        // Act
+        String rendered = extractText(pdfService.generateTicketPdf(booking));
+        String stamped = extractText(pdfService.generateTicketPdfFromTemplate(booking));
+
+        // Assert
+        for (String line : rendered.split("\n")) {
+            assertTrue(stamped.contains(line.trim()), "Missing from template output: " + line);
+        }
+    }
+
+    @Test
+    void testWriteTicketsPdf_EmptyExportIsStillAValidDocument() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        int written = pdfService.writeTicketsPdf(Collections.emptyIterator(), out);
+
+        // Assert
+        assertEquals(0, written);
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            assertEquals(1, document.getNumberOfPages());
+        }
+    }
+
+    private BookingResponse booking(String ticketCode, String userName) {
+        return new BookingResponse(1L, ticketCode, 1L, userName, 42L, "Colombo Music Festival", "Galle Face Green",
+                LocalDateTime.of(2030, 3, 1, 18, 0), 25.0, LocalDateTime.of(2030, 1, 15, 9, 30), "ACTIVE", 99);
+    }
+
+    private String extractText(byte[] pdf) throws IOException {
+        try (PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)))) {
+            return PdfTextExtractor.getTextFromPage(document.getFirstPage());
+        }
+    }
+}
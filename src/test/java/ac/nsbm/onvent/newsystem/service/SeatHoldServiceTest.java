@@ -0,0 +1,172 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.dto.AvailabilityResponse;
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.dto.SeatHoldResponse;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.exception.InsufficientSeatsException;
+import ac.nsbm.onvent.newsystem.exception.ResourceNotFoundException;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class, properties = "onvent.seat-holds.ttl=2s")
+@ActiveProfiles("test")
+class SeatHoldServiceTest {
+
+    private static final int CAPACITY = 10;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User holder;
+    private User other;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        holder = userRepository.save(newUser("holder"));
+        other = userRepository.save(newUser("other"));
+        event = eventRepository.save(Event.builder()
+                .title("Jazz Night")
+                .location("Blue Room")
+                .date(LocalDateTime.now().plusDays(7))
+                .price(30.0)
+                .seats(CAPACITY)
+                .organizer(holder)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testCreateHold_HeldSeatsCountAgainstAvailabilityAndBooking() {
+        // Act
+        SeatHoldResponse hold = seatHoldService.createHold(holder.getId(), request(8));
+
+        // Assert
+        AvailabilityResponse availability = ticketService.checkAvailability(event.getId());
+        assertEquals(2, hold.getAvailableSeats());
+        assertEquals(0, availability.getBookedSeats());
+        assertEquals(8, availability.getHeldSeats());
+        assertEquals(2, availability.getAvailableSeats());
+        assertThrows(InsufficientSeatsException.class, () -> ticketService.bookTicket(bookingFor(other, 3)));
+        assertEquals(2, ticketService.bookTicket(bookingFor(other, 2)).getNumberOfTickets());
+    }
+
+    @Test
+    void testConfirmHold_TurnsHeldSeatsIntoTickets() {
+        // Arrange
+        SeatHoldResponse hold = seatHoldService.createHold(holder.getId(), request(3));
+
+        // Act
+        BookingResponse booking = seatHoldService.confirmHold(hold.getHoldId(), holder.getId());
+
+        // Assert
+        AvailabilityResponse availability = ticketService.checkAvailability(event.getId());
+        assertEquals(3, booking.getTicketCodes().size());
+        assertEquals(3, ticketRepository.countActiveTicketsByEventId(event.getId()));
+        assertEquals(3, availability.getBookedSeats());
+        assertEquals(0, availability.getHeldSeats());
+        assertEquals(7, availability.getAvailableSeats());
+        assertThrows(ResourceNotFoundException.class, () -> seatHoldService.confirmHold(hold.getHoldId(), holder.getId()));
+    }
+
+    @Test
+    void testConfirmHold_OnlyByTheHolder() {
+        // Arrange
+        SeatHoldResponse hold = seatHoldService.createHold(holder.getId(), request(2));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> seatHoldService.confirmHold(hold.getHoldId(), other.getId()));
+        assertNotNull(seatHoldService.confirmHold(hold.getHoldId(), holder.getId()));
+    }
+
+    @Test
+    void testCreateHold_NewHoldReplacesTheUsersPreviousHold() {
+        // Arrange
+        SeatHoldResponse first = seatHoldService.createHold(holder.getId(), request(4));
+
+        // Act
+        seatHoldService.createHold(holder.getId(), request(2));
+
+        // Assert
+        assertEquals(2, ticketService.checkAvailability(event.getId()).getHeldSeats());
+        assertThrows(ResourceNotFoundException.class, () -> seatHoldService.confirmHold(first.getHoldId(), holder.getId()));
+    }
+
+    @Test
+    void testHold_ExpiresAndReturnsItsSeats() throws Exception {
+        // Arrange
+        SeatHoldResponse hold = seatHoldService.createHold(holder.getId(), request(CAPACITY));
+        assertEquals(0, ticketService.checkAvailability(event.getId()).getAvailableSeats());
+
+        // Act - the sweeper wakes at the 2 second deadline
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ticketService.checkAvailability(event.getId()).getHeldSeats() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        // Assert
+        assertEquals(CAPACITY, ticketService.checkAvailability(event.getId()).getAvailableSeats());
+        assertThrows(ResourceNotFoundException.class, () -> seatHoldService.confirmHold(hold.getHoldId(), holder.getId()));
+    }
+
+    private BookingRequest request(int seats) {
+        BookingRequest request = new BookingRequest();
+        request.setEventId(event.getId());
+        request.setNumberOfTickets(seats);
+        return request;
+    }
+
+    private BookingRequest bookingFor(User user, int seats) {
+        BookingRequest request = request(seats);
+        request.setUserId(user.getId());
+        return request;
+    }
+
+    private static User newUser(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name(username)
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build();
+    }
+}
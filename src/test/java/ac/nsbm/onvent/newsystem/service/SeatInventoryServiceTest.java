@@ -0,0 +1,273 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.TicketType;
+import ac.nsbm.onvent.newsystem.exception.InsufficientSeatsException;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SeatInventoryServiceTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SeatInventoryService seatInventoryService;
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(ticketRepository.countActiveTicketsByEventId(1L)).thenReturn(0L);
+        seatInventoryService = new SeatInventoryService(ticketRepository, transactionManager);
+
+        event = Event.builder().id(1L).title("Concert").seats(50).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testReserveSeats_ConcurrentBookingsNeverOversell() throws Exception {
+        // Arrange
+        int bookings = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < bookings; i++) {
+            executor.submit(() -> {
+                start.await();
+                inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+                    try {
+                        seatInventoryService.reserveSeats(event, null, 1);
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientSeatsException e) {
+                        rejected.incrementAndGet();
+                    }
+                });
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        assertEquals(50, succeeded.get());
+        assertEquals(150, rejected.get());
+        assertEquals(50, seatInventoryService.getBookedSeats(1L));
+    }
+
+    @Test
+    void testReserveSeats_RollbackReturnsSeats() {
+        // Act
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> seatInventoryService.reserveSeats(event, null, 5));
+
+        // Assert
+        assertEquals(0, seatInventoryService.getBookedSeats(1L));
+    }
+
+    @Test
+    void testReserveSeats_TicketTypeQuantityIsTheLimit() {
+        // Arrange
+        TicketType vip = new TicketType("VIP", 100.0, 2);
+        vip.setId(7L);
+        vip.setEvent(event);
+        when(ticketRepository.countActiveTicketsByTicketTypeId(7L)).thenReturn(2L);
+
+        // Act & Assert
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () ->
+                assertThrows(InsufficientSeatsException.class, () -> seatInventoryService.reserveSeats(event, vip, 1)));
+        assertEquals(0, seatInventoryService.getBookedSeats(1L));
+    }
+
+    @Test
+    void testReleaseSeats_AppliedOnlyAfterCommit() {
+        // Arrange
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                () -> seatInventoryService.reserveSeats(event, null, 3));
+
+        // Act
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> seatInventoryService.releaseSeats(1L, null, 1));
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                () -> seatInventoryService.releaseSeats(1L, null, 2));
+
+        // Assert
+        assertEquals(1, seatInventoryService.getBookedSeats(1L));
+    }
+
+    @Test
+    void testReconcile_KeepsSeatsOfUncommittedBookings() {
+        // Arrange
+        when(ticketRepository.countActiveTicketsGroupedByEventId())
+                .thenReturn(Collections.singletonList(new Object[]{1L, 10L}));
+        when(ticketRepository.countActiveTicketsGroupedByTicketTypeId()).thenReturn(Collections.emptyList());
+
+        // Act
+        TransactionSynchronizationManager.initSynchronization();
+        seatInventoryService.reserveSeats(event, null, 4);
+        seatInventoryService.reconcile();
+
+        // Assert
+        assertEquals(14, seatInventoryService.getBookedSeats(1L));
+    }
+
+    @Test
+    void testReconcile_ReleaseInFlightIsNotCountedTwice() {
+        // Arrange
+        when(ticketRepository.countActiveTicketsGroupedByEventId())
+                .thenReturn(Collections.singletonList(new Object[]{1L, 10L}));
+        when(ticketRepository.countActiveTicketsGroupedByTicketTypeId()).thenReturn(Collections.emptyList());
+        seatInventoryService.reconcile();
+        TransactionSynchronizationManager.initSynchronization();
+        seatInventoryService.releaseSeats(1L, null, 3);
+        List<TransactionSynchronization> release = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Act - the cancelled tickets are still active in the database until the release commits
+        seatInventoryService.reconcile();
+        int duringRelease = seatInventoryService.getBookedSeats(1L);
+        release.forEach(synchronization -> synchronization.beforeCommit(false));
+        release.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        assertEquals(10, duringRelease);
+        assertEquals(7, seatInventoryService.getBookedSeats(1L));
+    }
+
+    @Test
+    void testReconcile_LeavesCountersWithACommittingChange() {
+        // Arrange
+        when(ticketRepository.countActiveTicketsGroupedByEventId())
+                .thenReturn(Collections.singletonList(new Object[]{1L, 10L}))
+                .thenReturn(Collections.singletonList(new Object[]{1L, 7L}));
+        when(ticketRepository.countActiveTicketsGroupedByTicketTypeId()).thenReturn(Collections.emptyList());
+        seatInventoryService.reconcile();
+        TransactionSynchronizationManager.initSynchronization();
+        seatInventoryService.releaseSeats(1L, null, 3);
+        List<TransactionSynchronization> release = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Act - the release is committed in the database but not settled yet
+        release.forEach(synchronization -> synchronization.beforeCommit(false));
+        seatInventoryService.reconcile();
+        release.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        assertEquals(7, seatInventoryService.getBookedSeats(1L));
+    }
+
+    @Test
+    void testHoldSeats_HeldSeatsCannotBeBooked() {
+        // Arrange
+        seatInventoryService.holdSeats(event, null, 45);
+
+        // Act & Assert
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () ->
+                assertThrows(InsufficientSeatsException.class, () -> seatInventoryService.reserveSeats(event, null, 6)));
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                () -> seatInventoryService.reserveSeats(event, null, 5));
+        assertEquals(5, seatInventoryService.getBookedSeats(1L));
+        assertEquals(45, seatInventoryService.getHeldSeats(1L));
+    }
+
+    @Test
+    void testConfirmHeldSeats_CommitSellsAndRollbackKeepsTheHold() {
+        // Arrange
+        seatInventoryService.holdSeats(event, null, 4);
+
+        // Act & Assert
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK,
+                () -> seatInventoryService.confirmHeldSeats(event, null, 4));
+        assertEquals(0, seatInventoryService.getBookedSeats(1L));
+        assertEquals(4, seatInventoryService.getHeldSeats(1L));
+
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                () -> seatInventoryService.confirmHeldSeats(event, null, 4));
+        assertEquals(4, seatInventoryService.getBookedSeats(1L));
+        assertEquals(0, seatInventoryService.getHeldSeats(1L));
+    }
+
+    @Test
+    void testReconcile_KeepsSeatsOnHold() {
+        // Arrange
+        when(ticketRepository.countActiveTicketsGroupedByEventId())
+                .thenReturn(Collections.singletonList(new Object[]{1L, 10L}));
+        when(ticketRepository.countActiveTicketsGroupedByTicketTypeId()).thenReturn(Collections.emptyList());
+        seatInventoryService.holdSeats(event, null, 40);
+
+        // Act
+        seatInventoryService.reconcile();
+
+        // Assert - the 10 sold in the database plus the 40 held fill the event
+        assertEquals(10, seatInventoryService.getBookedSeats(1L));
+        assertEquals(40, seatInventoryService.getHeldSeats(1L));
+        assertThrows(InsufficientSeatsException.class, () -> seatInventoryService.holdSeats(event, null, 1));
+    }
+
+    @Test
+    void testForgetEvent_DropsTheCounterOnceTheDeletionCommits() {
+        // Arrange
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> seatInventoryService.reserveSeats(event, null, 5));
+
+        // Act
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> seatInventoryService.forgetEvent(1L));
+        int afterRollback = seatInventoryService.getBookedSeats(1L);
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> seatInventoryService.forgetEvent(1L));
+        int afterCommit = seatInventoryService.getBookedSeats(1L);
+
+        // Assert - only the committed deletion drops the counter, which is then loaded again from the database
+        assertEquals(5, afterRollback);
+        assertEquals(0, afterCommit);
+        verify(ticketRepository, times(2)).countActiveTicketsByEventId(1L);
+    }
+
+    private void inTransaction(int completionStatus, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations = new ArrayList<>();
+        try {
+            work.run();
+            synchronizations.addAll(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (completionStatus == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(completionStatus));
+    }
+}
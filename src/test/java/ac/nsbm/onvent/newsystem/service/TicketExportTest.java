@@ -0,0 +1,145 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.Ticket;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class TicketExportTest {
+
+    // More than one persistence context clear interval
+    private static final int ATTENDEES = 250;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private EmailService emailService;
+
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        User organizer = userRepository.save(user("organizer"));
+        event = eventRepository.save(Event.builder()
+                .title("Export Show")
+                .location("Main Hall")
+                .date(LocalDateTime.now().plusDays(30))
+                .price(25.0)
+                .seats(ATTENDEES + 10)
+                .organizer(organizer)
+                .build());
+
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 0; i < ATTENDEES; i++) {
+            tickets.add(Ticket.builder()
+                    .user(userRepository.save(user("attendee" + i)))
+                    .event(event)
+                    .pricePaid(event.getPrice())
+                    .ticketCode(String.format("TKT-%08d", i))
+                    .purchaseDate(LocalDateTime.now())
+                    .status(Ticket.TicketStatus.ACTIVE.name())
+                    .build());
+        }
+        tickets.get(0).setStatus(Ticket.TicketStatus.CANCELLED.name());
+        ticketRepository.saveAll(tickets);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testExportEventTickets_OnePagePerActiveTicket() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        int written = ticketService.exportEventTickets(event.getId(), TicketService.ExportFormat.PDF, out);
+
+        // Assert
+        assertEquals(ATTENDEES - 1, written);
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            assertEquals(ATTENDEES - 1, pdf.getNumberOfPages());
+            assertTrue(PdfTextExtractor.getTextFromPage(pdf.getFirstPage()).contains("TKT-00000001"));
+            assertTrue(PdfTextExtractor.getTextFromPage(pdf.getLastPage()).contains("TKT-00000249"));
+            assertTrue(PdfTextExtractor.getTextFromPage(pdf.getLastPage()).contains("Export Show"));
+        }
+    }
+
+    @Test
+    void testExportEventTickets_ZipEntryPerActiveTicket() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        int written = ticketService.exportEventTickets(event.getId(), TicketService.ExportFormat.ZIP, out);
+
+        // Assert
+        assertEquals(ATTENDEES - 1, written);
+        Set<String> entries = new HashSet<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.add(entry.getName());
+                try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(zip.readAllBytes())))) {
+                    assertEquals(1, pdf.getNumberOfPages());
+                }
+            }
+        }
+        assertEquals(ATTENDEES - 1, entries.size());
+        assertTrue(entries.contains("TKT-00000249.pdf"));
+        assertFalse(entries.contains("TKT-00000000.pdf"));
+    }
+
+    private User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .name("User " + username)
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build();
+    }
+}
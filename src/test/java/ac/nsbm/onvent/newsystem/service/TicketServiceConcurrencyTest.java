@@ -0,0 +1,176 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.exception.InsufficientSeatsException;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class TicketServiceConcurrencyTest {
+
+    private static final int CAPACITY = 300;
+    private static final int BOOKINGS = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("stress")
+                .email("stress@example.com")
+                .name("Stress Test")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testBookTicket_ConcurrentBookingsSellExactlyCapacity() throws Exception {
+        // Arrange
+        Event event = eventRepository.save(newEvent());
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+
+        // Act
+        runConcurrently(() -> {
+            BookingRequest request = new BookingRequest();
+            request.setUserId(user.getId());
+            request.setEventId(event.getId());
+            request.setNumberOfTickets(1);
+            try {
+                ticketService.bookTicket(request);
+                booked.incrementAndGet();
+            } catch (InsufficientSeatsException e) {
+                soldOut.incrementAndGet();
+            }
+            return null;
+        });
+
+        // Assert
+        assertEquals(CAPACITY, booked.get());
+        assertEquals(BOOKINGS - CAPACITY, soldOut.get());
+        assertEquals(CAPACITY, ticketRepository.countActiveTicketsByEventId(event.getId()));
+        assertEquals(CAPACITY, eventRepository.findById(event.getId()).orElseThrow().getSeatsSold());
+    }
+
+    @Test
+    void testBookTicket_MultipleTicketsInOneBooking() {
+        // Arrange
+        Event event = eventRepository.save(newEvent());
+        BookingRequest request = new BookingRequest();
+        request.setUserId(user.getId());
+        request.setEventId(event.getId());
+        request.setNumberOfTickets(4);
+
+        // Act
+        BookingResponse response = ticketService.bookTicket(request);
+
+        // Assert
+        assertEquals(4, response.getNumberOfTickets());
+        assertEquals(4, response.getTicketCodes().size());
+        assertEquals(4, response.getTicketCodes().stream().distinct().count());
+        assertEquals(CAPACITY - 4, response.getAvailableSeats());
+        assertEquals(4, ticketRepository.countActiveTicketsByEventId(event.getId()));
+        assertEquals(4, eventRepository.findById(event.getId()).orElseThrow().getSeatsSold());
+    }
+
+    @Test
+    void testReserveSeats_ConditionalUpdateNeverOversells() throws Exception {
+        // Arrange - hit the database counter directly, without the in-memory ledger in front of it
+        Event event = eventRepository.save(newEvent());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicInteger reserved = new AtomicInteger();
+
+        // Act
+        runConcurrently(() -> {
+            Integer updated = transaction.execute(status -> eventRepository.reserveSeats(event.getId(), 1));
+            if (updated != null && updated == 1) {
+                reserved.incrementAndGet();
+            }
+            return null;
+        });
+
+        // Assert
+        assertEquals(CAPACITY, reserved.get());
+        assertEquals(CAPACITY, eventRepository.findById(event.getId()).orElseThrow().getSeatsSold());
+    }
+
+    private Event newEvent() {
+        return Event.builder()
+                .title("Sold Out Show")
+                .location("Main Hall")
+                .date(LocalDateTime.now().plusDays(30))
+                .price(25.0)
+                .seats(CAPACITY)
+                .organizer(user)
+                .build();
+    }
+
+    private void runConcurrently(Callable<Void> booking) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < BOOKINGS; i++) {
+                results.add(executor.submit(booking));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.newsystem.config.UserPrincipal;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2030-01-01T10:00:00Z");
+
+    private TokenService tokenService;
+
+    private UserPrincipal user;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = newTokenService(SECRET, Clock.fixed(NOW, ZoneOffset.UTC));
+        user = UserPrincipal.of(7L, "tokenuser", "Token User", "token@example.com", Role.ADMIN);
+    }
+
+    @Test
+    void testVerifyToken_RoundTripKeepsTheUser() {
+        // Act
+        String token = tokenService.issueToken(user, TokenService.TokenType.ACCESS);
+        UserPrincipal verified = tokenService.verifyToken(token, TokenService.TokenType.ACCESS).orElseThrow();
+
+        // Assert
+        assertEquals(7L, verified.getId());
+        assertEquals("tokenuser", verified.getUsername());
+        assertEquals("Token User", verified.getName());
+        assertEquals("token@example.com", verified.getEmail());
+        assertTrue(verified.isAdmin());
+        assertNull(verified.getPassword());
+    }
+
+    @Test
+    void testVerifyToken_RejectsTamperedAndForeignTokens() {
+        // Arrange
+        String token = tokenService.issueToken(user, TokenService.TokenType.ACCESS);
+        String[] parts = token.split("\\.");
+        String otherUser = tokenService.issueToken(UserPrincipal.of(8L, "other", "Other", "other@example.com", Role.USER),
+                TokenService.TokenType.ACCESS).split("\\.")[1];
+        TokenService otherSecret = newTokenService("fedcba9876543210fedcba9876543210", Clock.fixed(NOW, ZoneOffset.UTC));
+
+        // Act & Assert
+        assertTrue(tokenService.verifyToken(parts[0] + "." + otherUser + "." + parts[2], TokenService.TokenType.ACCESS).isEmpty());
+        assertTrue(tokenService.verifyToken(parts[0] + "." + parts[1] + ".", TokenService.TokenType.ACCESS).isEmpty());
+        assertTrue(tokenService.verifyToken("not-a-token", TokenService.TokenType.ACCESS).isEmpty());
+        assertTrue(otherSecret.verifyToken(token, TokenService.TokenType.ACCESS).isEmpty());
+    }
+
+    @Test
+    void testVerifyToken_RejectsExpiredTokens() {
+        // Arrange
+        String token = tokenService.issueToken(user, TokenService.TokenType.ACCESS);
+        TokenService later = newTokenService(SECRET, Clock.fixed(NOW.plus(Duration.ofMinutes(16)), ZoneOffset.UTC));
+
+        // Act & Assert
+        assertTrue(later.verifyToken(token, TokenService.TokenType.ACCESS).isEmpty());
+    }
+
+    @Test
+    void testVerifyToken_TokenTypesAreNotInterchangeable() {
+        // Arrange
+        String refreshToken = tokenService.issueToken(user, TokenService.TokenType.REFRESH);
+        String accessToken = tokenService.issueToken(user, TokenService.TokenType.ACCESS);
+
+        // Act & Assert
+        assertTrue(tokenService.verifyToken(refreshToken, TokenService.TokenType.ACCESS).isEmpty());
+        assertTrue(tokenService.verifyToken(accessToken, TokenService.TokenType.REFRESH).isEmpty());
+        assertTrue(tokenService.verifyToken(refreshToken, TokenService.TokenType.REFRESH).isPresent());
+    }
+
+    @Test
+    void testTokenService_RequiresALongSecret() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> newTokenService("short", Clock.systemUTC()));
+    }
+
+    private TokenService newTokenService(String secret, Clock clock) {
+        return new TokenService(secret, Duration.ofMinutes(15), Duration.ofDays(7), new ObjectMapper(), clock);
+    }
+}
@@ -0,0 +1,145 @@
+package ac.nsbm.onvent.newsystem.service;
+
+import ac.nsbm.onvent.OnventNewApplication;
+import ac.nsbm.onvent.newsystem.config.QueryCounter;
+import ac.nsbm.onvent.newsystem.dto.BookingRequest;
+import ac.nsbm.onvent.newsystem.dto.BookingResponse;
+import ac.nsbm.onvent.newsystem.entity.Event;
+import ac.nsbm.onvent.newsystem.entity.Role;
+import ac.nsbm.onvent.newsystem.entity.TicketType;
+import ac.nsbm.onvent.newsystem.entity.User;
+import ac.nsbm.onvent.newsystem.repository.EventRepository;
+import ac.nsbm.onvent.newsystem.repository.NotificationOutboxRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketRepository;
+import ac.nsbm.onvent.newsystem.repository.TicketTypeRepository;
+import ac.nsbm.onvent.newsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = OnventNewApplication.class)
+@ActiveProfiles("test")
+class UserBookingsQueryTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    // Counts only this thread's statements, not those of the confirmation emails sent in the background
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User user;
+    private Event concert;
+    private TicketType vip;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("pager")
+                .email("pager@example.com")
+                .name("Page Reader")
+                .password("encodedPassword")
+                .role(Role.USER)
+                .build());
+        concert = eventRepository.save(newEvent("Concert", 100));
+        Event play = eventRepository.save(newEvent("Play", 50));
+        vip = new TicketType("VIP", 80.0, 20);
+        vip.setEvent(concert);
+        vip = ticketTypeRepository.save(vip);
+
+        book(concert, null, 5);
+        book(concert, vip.getId(), 4);
+        book(play, null, 6);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ticketRepository.deleteAll();
+        notificationOutboxRepository.deleteAll();
+        ticketTypeRepository.deleteAll();
+        eventRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testGetUserBookings_PageCostsConstantQueries() {
+        // Act
+        Page<BookingResponse> page;
+        int statements;
+        try (QueryCounter.Recording recording = queryCounter.start()) {
+            page = ticketService.getUserBookings(user.getId(), PageRequest.of(0, 10));
+            statements = recording.count();
+        }
+
+        // Assert - one query for the page and one for the total, however many events are on it
+        assertEquals(2, statements);
+        assertEquals(10, page.getContent().size());
+        assertEquals(15, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+    }
+
+    @Test
+    void testGetUserBookings_AvailabilityPerTicketTypeOrEvent() {
+        // Act
+        Page<BookingResponse> secondPage = ticketService.getUserBookings(user.getId(), PageRequest.of(1, 10));
+        List<BookingResponse> all = ticketService.getUserBookings(user.getId());
+
+        // Assert - VIP tickets report the ticket type's seats, the others their event's seats
+        assertEquals(5, secondPage.getContent().size());
+        Map<Integer, Long> ticketsByAvailability = all.stream()
+                .collect(Collectors.groupingBy(BookingResponse::getAvailableSeats, Collectors.counting()));
+        assertEquals(Map.of(100 - 9, 5L, 20 - 4, 4L, 50 - 6, 6L), ticketsByAvailability);
+        assertTrue(all.stream().allMatch(booking -> booking.getUserName().equals("Page Reader")));
+    }
+
+    private Event newEvent(String title, int seats) {
+        return Event.builder()
+                .title(title)
+                .location("Main Hall")
+                .date(LocalDateTime.now().plusDays(30))
+                .price(25.0)
+                .seats(seats)
+                .organizer(user)
+                .build();
+    }
+
+    private void book(Event event, Long ticketTypeId, int numberOfTickets) {
+        BookingRequest request = new BookingRequest();
+        request.setUserId(user.getId());
+        request.setEventId(event.getId());
+        request.setTicketTypeId(ticketTypeId);
+        request.setNumberOfTickets(numberOfTickets);
+        ticketService.bookTicket(request);
+    }
+}